@@ -0,0 +1,139 @@
+package hokmah.task;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import hokmah.Hokmah;
+
+/**
+ * Measures rendering and saving a large task list, comparing the shared formatters and appending into
+ * one buffer with the old way of compiling the patterns and concatenating strings for every task.
+ * Run with {@code ./gradlew jmh}; the gc profiler reports the allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TaskRenderBenchmark {
+    @Param({"100000"})
+    private int taskCount;
+
+    private List<Task> tasks;
+
+    /**
+     * Creates an equal mix of todos, deadlines and events.
+     */
+    @Setup
+    public void setUp() {
+        tasks = new ArrayList<>(taskCount);
+        LocalDateTime start = LocalDateTime.of(2024, 10, 10, 9, 0);
+        for (int i = 0; i < taskCount; i++) {
+            LocalDateTime time = start.plusHours(i);
+            switch (i % 3) {
+            case 0:
+                tasks.add(new ToDo("Read chapter " + i));
+                break;
+            case 1:
+                tasks.add(new Deadline("Submit report " + i, time));
+                break;
+            default:
+                tasks.add(new Event("Meeting " + i, time, time.plusHours(1)));
+                break;
+            }
+        }
+    }
+
+    @Benchmark
+    public String renderAppendTo() {
+        StringBuilder output = new StringBuilder();
+        int number = 1;
+        for (Task task : tasks) {
+            output.append(number++).append('.');
+            task.appendTo(output);
+            output.append('\n');
+        }
+        return output.toString();
+    }
+
+    @Benchmark
+    public String renderLegacy() {
+        StringBuilder output = new StringBuilder();
+        int number = 1;
+        for (Task task : tasks) {
+            output.append(number++).append(".").append(legacyToString(task)).append("\n");
+        }
+        return output.toString();
+    }
+
+    @Benchmark
+    public String saveAppendSaveText() {
+        StringBuilder output = new StringBuilder();
+        for (Task task : tasks) {
+            task.appendSaveText(output);
+            output.append('\n');
+        }
+        return output.toString();
+    }
+
+    @Benchmark
+    public String saveLegacy() {
+        StringBuilder output = new StringBuilder();
+        for (Task task : tasks) {
+            output.append(legacySaveText(task)).append('\n');
+        }
+        return output.toString();
+    }
+
+    /**
+     * Renders a task the way it was done before the shared formatters.
+     */
+    private static String legacyToString(Task task) {
+        String output = "";
+        output += task.isDone() ? "[X] " : "[ ] ";
+        output += task.getName();
+        if (task instanceof Deadline) {
+            return "[D]" + output + " (by: "
+                    + task.getTimeEnd().format(DateTimeFormatter.ofPattern(Hokmah.DATETIME_OUTPUT_FORMAT)) + ")";
+        }
+        if (task instanceof Event) {
+            return "[E]" + output + " (from: "
+                    + task.getTimeStart().format(DateTimeFormatter.ofPattern(Hokmah.DATETIME_OUTPUT_FORMAT))
+                    + " to: "
+                    + task.getTimeEnd().format(DateTimeFormatter.ofPattern(Hokmah.DATETIME_OUTPUT_FORMAT)) + ")";
+        }
+        return "[T]" + output;
+    }
+
+    /**
+     * Generates save text the way it was done before the shared formatters.
+     */
+    private static String legacySaveText(Task task) {
+        String output = "";
+        output += task.getType() + "|";
+        output += task.isDone() ? "1" : "0";
+        output += "|" + task.getName();
+        output = output.trim();
+        if (task instanceof Deadline) {
+            return output + "|"
+                    + task.getTimeEnd().format(DateTimeFormatter.ofPattern(Hokmah.DATETIME_INPUT_FORMAT));
+        }
+        if (task instanceof Event) {
+            return output + "|"
+                    + task.getTimeStart().format(DateTimeFormatter.ofPattern(Hokmah.DATETIME_INPUT_FORMAT))
+                    + "|"
+                    + task.getTimeEnd().format(DateTimeFormatter.ofPattern(Hokmah.DATETIME_INPUT_FORMAT));
+        }
+        return output;
+    }
+}
@@ -1,11 +1,22 @@
+import java.util.Arrays;
+import java.util.List;
+
+import hokmah.Hokmah;
 import javafx.application.Application;
 import view.Main;
 
 /**
  * A launcher class to workaround classpath issues.
+ * {@code --batch [file]} runs a script and {@code --server [port]} serves clients on the command line
+ * instead of opening the window. {@code --write-behind} saves changes in bursts in any mode.
  */
 public class Launcher {
     public static void main(String[] args) {
+        List<String> arguments = Arrays.asList(args);
+        if (arguments.contains(Hokmah.BATCH_FLAG) || arguments.contains(Hokmah.SERVER_FLAG)) {
+            Hokmah.main(args);
+            return;
+        }
         Application.launch(Main.class, args);
     }
 }
@@ -1,12 +1,26 @@
 package hokmah;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.util.Arrays;
 import java.util.Scanner;
+import java.util.function.Consumer;
 
+import hokmah.command.BatchRunner;
 import hokmah.command.CommandHandler;
 import hokmah.command.InputHandler;
 import hokmah.command.MessageHandler;
+import hokmah.data.DurabilityPolicy;
 import hokmah.data.SaveHandler;
 import hokmah.exception.HokmahException;
+import hokmah.reminder.ReminderScheduler;
+import hokmah.server.TaskServer;
 import hokmah.task.TaskList;
 
 
@@ -17,9 +31,16 @@ import hokmah.task.TaskList;
 public class Hokmah {
     public static final String DATETIME_INPUT_FORMAT = "yyyy-MM-dd HHmm";
     public static final String DATETIME_OUTPUT_FORMAT = "MMM dd yyyy hh:mm a";
+    public static final String DATE_INPUT_FORMAT = "yyyy-MM-dd";
+    public static final String DATE_OUTPUT_FORMAT = "EEE, MMM dd yyyy";
 
     public static final String DEFAULT_FILE_DATA_LOCATION = "data/tasks.txt";
     public static final String[] EXIT_COMMANDS = {"bye"};
+    public static final String BATCH_FLAG = "--batch";
+    public static final String SERVER_FLAG = "--server";
+    public static final String WRITE_BEHIND_FLAG = "--write-behind";
+    public static final String STANDARD_INPUT = "-";
+    public static final int MAX_PORT = 65535;
 
     private static final Scanner scanner = new Scanner(System.in);
     protected TaskList tasks;
@@ -27,6 +48,9 @@ public class Hokmah {
     protected SaveHandler storage;
     protected InputHandler inputHandler;
     protected CommandHandler commandHandler;
+    protected ReminderScheduler reminders;
+    protected TaskServer server;
+    private final Thread shutdownHook = new Thread(this::close);
 
     /**
      * Initializes application components.
@@ -40,7 +64,10 @@ public class Hokmah {
 
         tasks = new TaskList();
         ui = new MessageHandler();
+        reminders = new ReminderScheduler(Clock.systemDefaultZone(), ReminderScheduler.DEFAULT_LEAD_TIME);
+        tasks.addListener(reminders);
         storage = new SaveHandler(filePath[0]);
+        storage.setJournaling(true);
 
         try {
             tasks.setTaskArrayList(storage.loadFromFile());
@@ -48,11 +75,34 @@ public class Hokmah {
             System.out.println(e.getMessage());
         }
 
-
         commandHandler = new CommandHandler(tasks, storage, ui);
         inputHandler = new InputHandler(commandHandler);
+    }
 
+    /**
+     * Starts sending reminders and makes sure pending changes are written when the process exits.
+     */
+    public void start() {
+        reminders.start();
+        // The window leaves through System.exit, which runs this hook; close() removes it otherwise
+        try {
+            Runtime.getRuntime().addShutdownHook(shutdownHook);
+        } catch (IllegalArgumentException e) {
+            // Already started
+        }
+    }
 
+    /**
+     * Lets a background writer save changes in bursts instead of after every command.
+     * A change the app has already confirmed can be lost if the process crashes before the next burst,
+     * so this is only used when asked for with {@link #WRITE_BEHIND_FLAG}.
+     */
+    public void enableWriteBehind() {
+        try {
+            storage.setDurabilityPolicy(DurabilityPolicy.INTERVAL, SaveHandler.DEFAULT_FLUSH_INTERVAL_MILLIS);
+        } catch (HokmahException e) {
+            System.out.println(e.getMessage());
+        }
     }
 
 
@@ -60,24 +110,125 @@ public class Hokmah {
      * Starts main application loop.
      */
     public void run() {
+        start();
+        addReminderHandler(messageLines -> {
+            System.out.println(ui.getMessageSeparatorLine());
+            for (String line : messageLines) {
+                System.out.println(line);
+            }
+            System.out.println(ui.getMessageSeparatorLine());
+        });
         messageHandler();
     }
 
+    /**
+     * Registers a handler for reminder messages, which arrive on a background thread.
+     *
+     * @param handler Receives the lines of each reminder message
+     */
+    public void addReminderHandler(Consumer<String[]> handler) {
+        reminders.addListener(task -> handler.accept(ui.getReminderMessage(task)));
+    }
+
     /**
      * Handles continuous user input processing.
      */
     public void messageHandler() {
-        while (true) {
+        while (scanner.hasNextLine()) {
 
             String input = scanner.nextLine();
 
             System.out.println(ui.getMessageSeparatorLine());
             try {
-                inputHandler.process(input);
+                for (String line : inputHandler.process(input)) {
+                    System.out.println(line);
+                }
             } catch (HokmahException e) {
                 System.out.println(e.getMessage());
             }
             System.out.println(ui.getMessageSeparatorLine());
+
+            if (Arrays.asList(EXIT_COMMANDS).contains(input)) {
+                break;
+            }
+        }
+
+        close();
+    }
+
+    /**
+     * Runs a script of commands without the interactive loop, then prints a summary and closes.
+     *
+     * @param scriptPath Script to run, or {@link #STANDARD_INPUT} to read commands from standard input
+     */
+    public void runBatch(String scriptPath) {
+        BatchRunner batchRunner = new BatchRunner(inputHandler, tasks, storage);
+        try {
+            BatchRunner.Result result = scriptPath.equals(STANDARD_INPUT)
+                    ? batchRunner.run(new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)))
+                    : batchRunner.run(Path.of(scriptPath));
+            for (String line : ui.getBatchMessage(result, scriptPath)) {
+                System.out.println(line);
+            }
+        } catch (IOException | InvalidPathException e) {
+            System.out.println("Could not read " + scriptPath);
+        } catch (HokmahException e) {
+            System.out.println(e.getMessage());
+        }
+
+        close();
+    }
+
+    /**
+     * Serves the task list to clients on this machine until the process is stopped.
+     *
+     * @param port Port to listen on
+     */
+    public void runServer(int port) {
+        server = new TaskServer(this::createRemoteSession, port);
+        start();
+        try {
+            server.start();
+            System.out.println("Serving tasks on " + InetAddress.getLoopbackAddress().getHostAddress()
+                    + ":" + server.getPort());
+            server.awaitClose();
+        } catch (IOException e) {
+            System.out.println("Could not listen on port " + port);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        close();
+    }
+
+    /**
+     * Creates the session of one remote client, which shares the tasks but keeps its own undo history and pages,
+     * and cannot make the server run script files.
+     */
+    private InputHandler createRemoteSession() {
+        CommandHandler remoteCommandHandler = new CommandHandler(tasks, storage, ui);
+        remoteCommandHandler.setBatchAllowed(false);
+        return new InputHandler(remoteCommandHandler);
+    }
+
+    /**
+     * Stops reminders and serving, and writes any changes that are still waiting for the background writer.
+     */
+    public void close() {
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException e) {
+            // The process is already shutting down, possibly through this very hook
+        }
+
+        if (server != null) {
+            server.close();
+        }
+        reminders.stop();
+        try {
+            storage.close();
+        } catch (HokmahException e) {
+            System.out.println(e.getMessage());
         }
     }
 
@@ -90,7 +241,42 @@ public class Hokmah {
     }
 
     public static void main(String[] args) {
-        new Hokmah(DEFAULT_FILE_DATA_LOCATION).run();
+        boolean isWriteBehind = Arrays.asList(args).contains(WRITE_BEHIND_FLAG);
+        args = Arrays.stream(args).filter(arg -> !arg.equals(WRITE_BEHIND_FLAG)).toArray(String[]::new);
+
+        if (args.length > 0 && args[0].equals(BATCH_FLAG)) {
+            if (args.length != 2) {
+                System.out.println("Usage: " + BATCH_FLAG + " <file>, or " + BATCH_FLAG + " " + STANDARD_INPUT
+                        + " to read commands from standard input");
+                return;
+            }
+            create(isWriteBehind).runBatch(args[1]);
+            return;
+        }
+        if (args.length > 0 && args[0].equals(SERVER_FLAG)) {
+            int port;
+            try {
+                port = args.length > 1 ? Integer.parseInt(args[1]) : TaskServer.DEFAULT_PORT;
+            } catch (NumberFormatException e) {
+                System.out.println(args[1] + " is not a valid port");
+                return;
+            }
+            if (port < 0 || port > MAX_PORT) {
+                System.out.println(args[1] + " is not a valid port");
+                return;
+            }
+            create(isWriteBehind).runServer(port);
+            return;
+        }
+        create(isWriteBehind).run();
+    }
+
+    private static Hokmah create(boolean isWriteBehind) {
+        Hokmah hokmah = new Hokmah(DEFAULT_FILE_DATA_LOCATION);
+        if (isWriteBehind) {
+            hokmah.enableWriteBehind();
+        }
+        return hokmah;
     }
 
     public String[] getWelcomeMessage() {
@@ -0,0 +1,165 @@
+package hokmah.command;
+
+import static hokmah.Hokmah.EXIT_COMMANDS;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import hokmah.data.DurabilityPolicy;
+import hokmah.data.SaveHandler;
+import hokmah.exception.HokmahException;
+import hokmah.exception.HokmahException.ExceptionType;
+import hokmah.task.TaskList;
+
+/**
+ * Runs a script of commands, one per line, through the same {@link InputHandler} as typed commands.
+ * Saving is deferred while the script runs: changes are kept in memory and the whole list is written
+ * once at each checkpoint and once at the end, instead of once per command.
+ * Blank lines and lines starting with {@code #} are skipped, and an exit command ends the script.
+ */
+public class BatchRunner {
+    public static final int DEFAULT_CHECKPOINT_INTERVAL = 10_000;
+    public static final String RUN_COMMAND = "run";
+
+    private static final int MAX_REPORTED_FAILURES = 5;
+
+    /**
+     * Outcome of a script run.
+     *
+     * @param commandCount Number of commands run
+     * @param failures     Failed commands with their line numbers, at most {@link #MAX_REPORTED_FAILURES}
+     * @param failureCount Number of commands that failed
+     * @param elapsedNanos Time taken, including saving
+     */
+    public record Result(int commandCount, List<String> failures, int failureCount, long elapsedNanos) {
+        /**
+         * Gets the throughput of the run.
+         *
+         * @return Commands run per second
+         */
+        public double getCommandsPerSecond() {
+            return elapsedNanos == 0 ? 0 : commandCount * 1e9 / elapsedNanos;
+        }
+    }
+
+    private final InputHandler inputHandler;
+    private final TaskList tasks;
+    private final SaveHandler storage;
+    private int checkpointInterval = DEFAULT_CHECKPOINT_INTERVAL;
+
+    /**
+     * Initializes the runner with the components typed commands go through.
+     *
+     * @param inputHandler Handler that runs each command
+     * @param tasks        Task list the commands change
+     * @param storage      Storage the task list is saved to
+     */
+    public BatchRunner(InputHandler inputHandler, TaskList tasks, SaveHandler storage) {
+        this.inputHandler = inputHandler;
+        this.tasks = tasks;
+        this.storage = storage;
+    }
+
+    /**
+     * Sets how many commands run between saves. Fewer saves are faster, but lose more work if the run is killed.
+     *
+     * @param checkpointInterval Number of commands between saves
+     */
+    public void setCheckpointInterval(int checkpointInterval) {
+        assert checkpointInterval > 0 : "Checkpoint interval must be positive";
+        this.checkpointInterval = checkpointInterval;
+    }
+
+    /**
+     * Runs the commands in a file.
+     *
+     * @param path Script to run
+     * @return Outcome of the run
+     * @throws HokmahException If the file cannot be read or the tasks cannot be saved
+     */
+    public Result run(Path path) throws HokmahException {
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            return run(reader);
+        } catch (IOException e) {
+            throw new HokmahException(ExceptionType.INVALID_BATCH_FILE);
+        }
+    }
+
+    /**
+     * Runs the commands read from a reader, streaming them one line at a time.
+     *
+     * @param reader Source of the script
+     * @return Outcome of the run
+     * @throws IOException     If the script cannot be read
+     * @throws HokmahException If the tasks cannot be saved
+     */
+    public Result run(BufferedReader reader) throws IOException, HokmahException {
+        DurabilityPolicy previousPolicy = storage.getDurabilityPolicy();
+        long previousInterval = storage.getFlushIntervalMillis();
+        storage.setDurabilityPolicy(DurabilityPolicy.ON_EXIT, previousInterval);
+
+        long startNanos = System.nanoTime();
+        List<String> failures = new ArrayList<>();
+        int commandCount = 0;
+        int failureCount = 0;
+        int lineNumber = 0;
+        try {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                lineNumber++;
+                String input = line.trim();
+                if (input.isEmpty() || input.startsWith("#")) {
+                    continue;
+                }
+                if (Arrays.asList(EXIT_COMMANDS).contains(input)) {
+                    break;
+                }
+
+                commandCount++;
+                String failure = runCommand(input);
+                if (failure != null) {
+                    failureCount++;
+                    if (failures.size() < MAX_REPORTED_FAILURES) {
+                        failures.add("Line " + lineNumber + ": " + failure);
+                    }
+                }
+
+                if (commandCount % checkpointInterval == 0) {
+                    storage.saveToFile(tasks.asList());
+                }
+            }
+        } finally {
+            // Save whatever ran, even if reading the script failed part way
+            try {
+                storage.saveToFile(tasks.asList());
+            } finally {
+                storage.setDurabilityPolicy(previousPolicy, previousInterval);
+            }
+        }
+
+        return new Result(commandCount, failures, failureCount, System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Runs one command.
+     *
+     * @return First line of the error message, or null if the command succeeded
+     */
+    private String runCommand(String input) {
+        if (input.split(" ", 2)[0].equals(RUN_COMMAND)) {
+            return "Scripts can't run other scripts";
+        }
+
+        try {
+            inputHandler.process(input);
+            return null;
+        } catch (HokmahException e) {
+            return e.getMessageLines()[0];
+        }
+    }
+}
@@ -1,17 +1,27 @@
 package hokmah.command;
 
-import static hokmah.Hokmah.DATETIME_INPUT_FORMAT;
 import static hokmah.exception.HokmahException.ExceptionType;
+import static hokmah.task.DateTimeFormats.DATETIME_INPUT;
+import static hokmah.task.DateTimeFormats.DATETIME_OUTPUT;
+import static hokmah.task.DateTimeFormats.DATE_INPUT;
 
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.time.LocalTime;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.function.Function;
 
 import hokmah.data.SaveHandler;
 import hokmah.exception.HokmahException;
 import hokmah.task.Deadline;
 import hokmah.task.Event;
+import hokmah.task.RecurringTask;
 import hokmah.task.Task;
 import hokmah.task.TaskList;
 import hokmah.task.ToDo;
@@ -21,9 +31,21 @@ import hokmah.task.ToDo;
  * Contains business logic for task manipulation and system operations.
  */
 public class CommandHandler {
+    public static final int DEFAULT_NEXT_DUE_COUNT = 5;
+    public static final int DAYS_IN_WEEK = 7;
+    public static final String DONE_SELECTION = "done";
+    public static final String NEXT_PAGE = "next";
+    public static final String MORE_COMMAND = "more";
+    public static final int DEFAULT_PAGE_SIZE = 50;
+
     private final TaskList tasks;
     private final SaveHandler storage;
     private final MessageHandler messageHandler;
+    private final UndoHistory history = new UndoHistory(UndoHistory.DEFAULT_CAPACITY);
+    private int pageSize = DEFAULT_PAGE_SIZE;
+    private boolean isBatchAllowed = true;
+    // Belongs to this handler's session only; every server client gets its own handler
+    private TaskPager pager;
 
     /**
      * Initializes command handler with dependencies.
@@ -39,78 +61,169 @@ public class CommandHandler {
     }
 
     /**
-     * Returns a formatted list of all tasks.
+     * Sets how many tasks a listing command shows at a time.
+     *
+     * @param pageSize Maximum number of tasks per page
+     */
+    public void setPageSize(int pageSize) {
+        assert pageSize > 0 : "Page size must be positive";
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Sets whether the {@code run} command may read script files, which remote clients must not do.
      *
-     * @return String[] containing numbered list of tasks
+     * @param isBatchAllowed Whether scripts may be run
+     */
+    public void setBatchAllowed(boolean isBatchAllowed) {
+        this.isBatchAllowed = isBatchAllowed;
+    }
+
+    /**
+     * Returns the first page of the numbered task list, or with {@code list next},
+     * the next page of whatever was listed last, like {@code more}.
+     *
+     * @param inputArray The parsed command input
+     * @return String[] containing a page of the numbered list of tasks
      */
-    protected String[] showList() {
+    protected String[] showList(String[] inputArray) {
+        assert inputArray != null : "Null command input";
+
+        if (inputArray.length > 1 && inputArray[1].trim().equals(NEXT_PAGE)) {
+            return showNextPage();
+        }
         if (tasks.size() == 0) {
             return new String[]{"You have no tasks! Don't disturb me!"};
         }
 
+        return showFirstPage(tasks.asList(), messageHandler::getListMessage);
+    }
 
-        StringBuilder tasksMessage = new StringBuilder();
-        for (int i = 0; i < tasks.size(); i++) {
-            Task task = tasks.getTaskArrayList().get(i);
-            assert task != null : "Task list contains null entries";
-
-            tasksMessage.append((i + 1)).append(".").append(task).append("\n");
-
+    /**
+     * Returns the next page of the results listed last, with the heading and numbering of the command
+     * that listed them.
+     *
+     * @return String[] containing the next page, or a message that there is nothing more
+     */
+    protected String[] showNextPage() {
+        TaskPager lastPager = pager;
+        if (lastPager == null || !lastPager.hasNext()) {
+            return messageHandler.getNoMorePagesMessage();
         }
 
-        String[] messageLines = {"You have these tasks",
-                tasksMessage.toString()};
-
-        return messageLines;
+        return lastPager.nextMessage();
     }
 
 
     /**
-     * Marks the task at the specified index as done.
+     * Marks the tasks at the specified indexes as done, e.g. {@code 3}, {@code 1,4,7} or {@code 5-900}.
+     * Many tasks are marked and saved as a single operation.
      *
      * @param inputArray Parsed command components
      * @return Confirmation message with marked task details
      */
     protected String[] markTask(String[] inputArray) throws HokmahException {
-        Task task = getTask(inputArray);
+        BitSet indexes = getTaskIndexes(inputArray);
+        if (indexes.isEmpty()) {
+            return messageHandler.getNoTasksMatchedMessage();
+        }
+        UndoHistory.MarkEdit edit = getMarkEdit(indexes, true);
+        if (indexes.cardinality() != 1) {
+            List<Task> marked = tasks.markAll(indexes);
+            recordEdit(edit);
+            storage.saveMarkAll(tasks.asList(), indexes);
+            return messageHandler.getMarkTasksMessage(marked);
+        }
+
+        int index = indexes.nextSetBit(0);
+        Task task = tasks.mark(index);
         assert task != null : "Task is null";
-        task.markDone();
+        recordEdit(edit);
 
-        storage.saveToFile(tasks.getTaskArrayList());
+        storage.saveMark(tasks.asList(), index);
         return messageHandler.getMarkTaskMessage(task);
     }
 
     /**
-     * Removes the completion status from the specified task.
+     * Removes the completion status from the tasks at the specified indexes.
+     * Many tasks are unmarked and saved as a single operation.
      *
      * @param inputArray Parsed command components
      * @return Confirmation message with unmarked task details
      */
     protected String[] unmarkTask(String[] inputArray) throws HokmahException {
-        Task task = getTask(inputArray);
+        BitSet indexes = getTaskIndexes(inputArray);
+        if (indexes.isEmpty()) {
+            return messageHandler.getNoTasksMatchedMessage();
+        }
+        UndoHistory.MarkEdit edit = getMarkEdit(indexes, false);
+        if (indexes.cardinality() != 1) {
+            List<Task> unmarked = tasks.unmarkAll(indexes);
+            recordEdit(edit);
+            storage.saveUnmarkAll(tasks.asList(), indexes);
+            return messageHandler.getUnmarkTasksMessage(unmarked);
+        }
+
+        int index = indexes.nextSetBit(0);
+        Task task = tasks.unmark(index);
         assert task != null : "Task is null";
-        task.unmarkDone();
+        recordEdit(edit);
 
-        storage.saveToFile(tasks.getTaskArrayList());
+        storage.saveUnmark(tasks.asList(), index);
         return messageHandler.getUnmarkTaskMessage(task);
     }
 
     /**
-     * Deletes a task from the list and persists changes.
+     * Deletes the tasks at the specified indexes, or every done task with {@code delete done}, and persists changes.
+     * Many tasks are removed and saved as a single operation.
      *
      * @param inputArray Parsed command components
      * @return Confirmation message with deleted task details
      */
     protected String[] deleteTask(String[] inputArray) throws HokmahException {
-        Task task = getTask(inputArray);
+        BitSet indexes = getTaskIndexes(inputArray);
+        if (indexes.isEmpty()) {
+            return messageHandler.getNoTasksMatchedMessage();
+        }
+        if (indexes.cardinality() != 1) {
+            List<Task> deleted = tasks.deleteAll(indexes);
+            history.record(new UndoHistory.DeleteEdit(indexes, deleted), tasks);
+            storage.saveDeleteAll(tasks.asList(), indexes);
+            return messageHandler.getDeleteTasksMessage(deleted, tasks.size());
+        }
+
+        int index = indexes.nextSetBit(0);
+        Task task = tasks.delete(index);
         assert task != null : "Task is null";
-        tasks.delete(task);
+        history.record(new UndoHistory.DeleteEdit(indexes, List.of(task)), tasks);
 
-        storage.saveToFile(tasks.getTaskArrayList());
+        storage.saveDelete(tasks.asList(), index);
         return messageHandler.getDeleteTaskMessage(task);
 
     }
 
+    /**
+     * Reverts the latest add, mark, unmark or delete and saves the result like any other change.
+     *
+     * @return Confirmation message naming the reverted change
+     * @throws HokmahException If there is nothing to undo or the change could not be saved
+     */
+    protected String[] undo() throws HokmahException {
+        UndoHistory.Edit edit = history.undo(tasks, storage);
+        return messageHandler.getUndoMessage(edit.getDescription());
+    }
+
+    /**
+     * Reapplies the latest change that was undone.
+     *
+     * @return Confirmation message naming the reapplied change
+     * @throws HokmahException If there is nothing to redo or the change could not be saved
+     */
+    protected String[] redo() throws HokmahException {
+        UndoHistory.Edit edit = history.redo(tasks, storage);
+        return messageHandler.getRedoMessage(edit.getDescription());
+    }
+
     /**
      * Adds a new Todo task to the list.
      *
@@ -127,8 +240,7 @@ public class CommandHandler {
         validateTaskName(taskName);
         ToDo newTodo = new ToDo(taskName);
 
-        tasks.add(newTodo);
-        storage.saveToFile(tasks.getTaskArrayList());
+        saveTask(newTodo);
 
         return messageHandler.getAddTaskMessage(newTodo, tasks.size());
     }
@@ -157,8 +269,7 @@ public class CommandHandler {
         LocalDateTime deadlineDate = parseDateTime(deadline, ExceptionType.INVALID_DEADLINE_FORMAT);
         Deadline newDeadline = new Deadline(taskName, deadlineDate);
 
-        tasks.add(newDeadline);
-        storage.saveToFile(tasks.getTaskArrayList());
+        saveTask(newDeadline);
 
         return messageHandler.getAddTaskMessage(newDeadline, tasks.size());
     }
@@ -198,17 +309,90 @@ public class CommandHandler {
 
         Event newEvent = new Event(taskName, eventStartTimeDate, eventEndTimeDate);
 
-        tasks.add(newEvent);
-        storage.saveToFile(tasks.getTaskArrayList());
+        saveTask(newEvent);
 
         return messageHandler.getAddTaskMessage(newEvent, tasks.size());
     }
 
     /**
-     * Returns a message for unsupported commands.
+     * Adds a new RecurringTask to the list and saves it as a single rule.
+     *
+     * @param inputArray The parsed command input
+     * @return Confirmation message with new task details
+     * @throws HokmahException If the format, frequency or datetimes are invalid
      */
-    protected String[] unsupportedCommand() {
-        return messageHandler.getUnsupportedCommandMessage();
+    protected String[] addRecurring(String[] inputArray) throws HokmahException {
+        assert inputArray != null : "Null command input";
+
+        validateInputArray(inputArray, 2, ExceptionType.NO_NAME);
+
+        String[] taskDetails = inputArray[1].split(" /from ");
+        validateTaskDetails(taskDetails, 2, ExceptionType.INVALID_RECURRING_FORMAT);
+
+        String taskName = taskDetails[0].trim();
+        validateTaskName(taskName);
+
+        String[] ruleDetails = taskDetails[1].split(" /every ");
+        validateTaskDetails(ruleDetails, 2, ExceptionType.INVALID_RECURRING_FORMAT);
+        LocalDateTime firstTime = parseDateTime(ruleDetails[0].trim(), ExceptionType.INVALID_RECURRING_FORMAT);
+
+        String[] frequencyDetails = ruleDetails[1].split(" /until ");
+        RecurringTask.Frequency frequency = RecurringTask.Frequency.parse(frequencyDetails[0].trim());
+        if (frequency == null) {
+            throw new HokmahException(ExceptionType.INVALID_RECURRING_FORMAT);
+        }
+
+        LocalDateTime untilTime = null;
+        if (frequencyDetails.length > 1) {
+            untilTime = parseDateTime(frequencyDetails[1].trim(), ExceptionType.INVALID_RECURRING_FORMAT);
+            if (untilTime.isBefore(firstTime)) {
+                throw new HokmahException(ExceptionType.INVALID_RECURRING_FORMAT);
+            }
+        }
+
+        RecurringTask newRecurring = new RecurringTask(taskName, firstTime, frequency, untilTime);
+        saveTask(newRecurring);
+
+        return messageHandler.getAddTaskMessage(newRecurring, tasks.size());
+    }
+
+    /**
+     * Runs every command in a script file, saving once at the end instead of after every command.
+     *
+     * @param inputArray   The parsed command input
+     * @param inputHandler Handler that runs each command of the script
+     * @return Summary of the run with its throughput
+     * @throws HokmahException If scripts are not allowed here, no file is given, it cannot be read
+     *                         or the tasks cannot be saved
+     */
+    protected String[] runBatch(String[] inputArray, InputHandler inputHandler) throws HokmahException {
+        assert inputArray != null : "Null command input";
+
+        if (!isBatchAllowed) {
+            throw new HokmahException(ExceptionType.BATCH_NOT_ALLOWED);
+        }
+
+        validateInputArray(inputArray, 2, ExceptionType.INVALID_BATCH_FILE);
+        String scriptPath = inputArray[1].trim();
+
+        Path script;
+        try {
+            script = Path.of(scriptPath);
+        } catch (InvalidPathException e) {
+            throw new HokmahException(ExceptionType.INVALID_BATCH_FILE);
+        }
+
+        BatchRunner.Result result = new BatchRunner(inputHandler, tasks, storage).run(script);
+        return messageHandler.getBatchMessage(result, scriptPath);
+    }
+
+    /**
+     * Refuses a command that is not recognised, so callers such as batch runs can count it as a failure.
+     *
+     * @throws HokmahException Always, with guidance on the help command
+     */
+    protected String[] unsupportedCommand() throws HokmahException {
+        throw new HokmahException(ExceptionType.UNSUPPORTED_COMMAND);
     }
 
     /**
@@ -225,21 +409,7 @@ public class CommandHandler {
         }
 
         String keyword = inputArray[1];
-        ArrayList<Task> matches = new ArrayList<>();
-
-        for (Task task : tasks.getTaskArrayList()) {
-            if (task == null) {
-                continue;
-            }
-
-            if (!task.getName().contains(keyword)) {
-                continue;
-            }
-
-            matches.add(task);
-        }
-
-        return messageHandler.getFindMessage(matches, keyword);
+        return showFirstPage(tasks.find(keyword), page -> messageHandler.getFindMessage(page, keyword));
 
     }
 
@@ -268,26 +438,157 @@ public class CommandHandler {
         String date = inputArray[1].trim();
         LocalDateTime dateToCheck = parseDateTime(date, ExceptionType.NO_UPCOMING_ON_DATE);
 
-        ArrayList<Task> upcomingTasks = new ArrayList<>();
-        for (Task task : tasks.getTaskArrayList()) {
-            if (task == null) {
-                continue;
-            }
+        return showFirstPage(getDueTasks(dateToCheck, dateToCheck),
+                page -> messageHandler.getUpcomingTasksOnMessage(page, dateToCheck));
+    }
 
-            if (task.getTimeEnd() == null) {
-                continue;
-            }
+    /**
+     * Shows tasks due within a time range, both ends included.
+     *
+     * @param inputArray The parsed command input
+     * @return a message listing the tasks due in the range
+     * @throws HokmahException If the range is missing or its dates are invalid
+     */
+    protected String[] dueBetween(String[] inputArray) throws HokmahException {
+        assert inputArray != null : "Null command input";
+
+        validateInputArray(inputArray, 2, ExceptionType.INVALID_DUE_RANGE);
+
+        String[] rangeDetails = inputArray[1].split(" /to ");
+        validateTaskDetails(rangeDetails, 2, ExceptionType.INVALID_DUE_RANGE);
+
+        LocalDateTime from = parseDateTime(rangeDetails[0].trim(), ExceptionType.INVALID_DUE_RANGE);
+        LocalDateTime to = parseDateTime(rangeDetails[1].trim(), ExceptionType.INVALID_DUE_RANGE);
+        if (to.isBefore(from)) {
+            throw new HokmahException(ExceptionType.INVALID_DUE_RANGE);
+        }
+
+        String period = "between " + formatDateTime(from) + " and " + formatDateTime(to);
+        return showFirstPage(getDueTasks(from, to), page -> messageHandler.getDueTasksMessage(page, period));
+    }
+
+    /**
+     * Shows tasks due at any time today.
+     *
+     * @return a message listing the tasks due today
+     * @throws HokmahException If recurring tasks have too many occurrences today
+     */
+    protected String[] dueToday() throws HokmahException {
+        LocalDate today = LocalDate.now();
+        List<Task> dueTasks = getDueTasks(today.atStartOfDay(), today.atTime(LocalTime.MAX));
 
-            if (!task.getTimeEnd().equals(dateToCheck)) {
-                continue;
+        return showFirstPage(dueTasks, page -> messageHandler.getDueTasksMessage(page, "today"));
+    }
+
+    /**
+     * Shows the next tasks that are not done yet, in order of when they are due.
+     *
+     * @param inputArray The parsed command input, optionally holding how many tasks to show
+     * @return a message listing the next tasks due
+     * @throws HokmahException If the count is not a positive number
+     */
+    protected String[] nextDue(String[] inputArray) throws HokmahException {
+        assert inputArray != null : "Null command input";
+
+        int count = DEFAULT_NEXT_DUE_COUNT;
+        if (inputArray.length > 1) {
+            try {
+                count = Integer.parseInt(inputArray[1].trim());
+            } catch (NumberFormatException e) {
+                throw new HokmahException(ExceptionType.INVALID_NEXT_DUE_COUNT);
             }
+        }
 
-            upcomingTasks.add(task);
+        if (count <= 0 || count > TaskList.MAX_OCCURRENCES) {
+            throw new HokmahException(ExceptionType.INVALID_NEXT_DUE_COUNT);
         }
 
-        return messageHandler.getUpcomingTasksOnMessage(upcomingTasks, dateToCheck);
+        List<Task> dueTasks = tasks.nextDue(LocalDateTime.now(), count);
+        return showFirstPage(dueTasks, page -> messageHandler.getDueTasksMessage(page, "soon"));
+    }
+
+    /**
+     * Shows events that are on at some point between two times.
+     *
+     * @param inputArray The parsed command input
+     * @return a message listing the overlapping events
+     * @throws HokmahException If the window is missing or its dates are invalid
+     */
+    protected String[] overlaps(String[] inputArray) throws HokmahException {
+        assert inputArray != null : "Null command input";
+
+        validateInputArray(inputArray, 2, ExceptionType.INVALID_OVERLAP_RANGE);
+
+        String[] rangeDetails = inputArray[1].split(" /to ");
+        validateTaskDetails(rangeDetails, 2, ExceptionType.INVALID_OVERLAP_RANGE);
+
+        LocalDateTime from = parseDateTime(rangeDetails[0].trim(), ExceptionType.INVALID_OVERLAP_RANGE);
+        LocalDateTime to = parseDateTime(rangeDetails[1].trim(), ExceptionType.INVALID_OVERLAP_RANGE);
+        if (!to.isAfter(from)) {
+            throw new HokmahException(ExceptionType.INVALID_OVERLAP_RANGE);
+        }
+
+        String period = "between " + formatDateTime(from) + " and " + formatDateTime(to);
+        return showFirstPage(tasks.overlapping(from, to), page -> messageHandler.getEventsMessage(page, period));
+    }
+
+    /**
+     * Shows events that are on at a given time.
+     *
+     * @param inputArray The parsed command input
+     * @return a message listing the events on at that time
+     * @throws HokmahException If the time is missing or invalid
+     */
+    protected String[] happeningAt(String[] inputArray) throws HokmahException {
+        assert inputArray != null : "Null command input";
+
+        validateInputArray(inputArray, 2, ExceptionType.NO_HAPPENING_AT_TIME);
+        LocalDateTime time = parseDateTime(inputArray[1].trim(), ExceptionType.NO_HAPPENING_AT_TIME);
+
+        String period = "at " + formatDateTime(time);
+        return showFirstPage(tasks.happeningAt(time), page -> messageHandler.getEventsMessage(page, period));
+    }
+
+    /**
+     * Shows the agenda of today, of a given day, or of the week starting today.
+     *
+     * @param inputArray The parsed command input, optionally holding a date or "week"
+     * @return a message listing each day's tasks
+     * @throws HokmahException If the date is invalid
+     */
+    protected String[] agenda(String[] inputArray) throws HokmahException {
+        assert inputArray != null : "Null command input";
+
+        LocalDate from = LocalDate.now();
+        LocalDate to = from;
+        String period = "today";
+
+        String argument = inputArray.length > 1 ? inputArray[1].trim() : "";
+        if (argument.equals("week")) {
+            to = from.plusDays(DAYS_IN_WEEK - 1);
+            period = "this week";
+        } else if (!argument.isEmpty()) {
+            from = parseDate(argument, ExceptionType.INVALID_AGENDA_DATE);
+            to = from;
+            period = "on " + argument;
+        }
 
+        SortedMap<LocalDate, List<Task>> agenda;
+        try {
+            agenda = tasks.agenda(from, to);
+        } catch (IllegalArgumentException e) {
+            throw new HokmahException(ExceptionType.RANGE_TOO_LARGE);
+        }
 
+        // Pages split the agenda by task, so each task keeps the day it is listed under
+        List<Task> agendaTasks = new ArrayList<>();
+        List<LocalDate> days = new ArrayList<>();
+        agenda.forEach((day, dayTasks) -> {
+            agendaTasks.addAll(dayTasks);
+            dayTasks.forEach(task -> days.add(day));
+        });
+        String agendaPeriod = period;
+        return showFirstPage(agendaTasks, page -> messageHandler.getAgendaMessage(page, days, agendaPeriod));
     }
 
     /**
@@ -299,13 +600,69 @@ public class CommandHandler {
 
 
     /* Helper functions */
-    private Task getTask(String[] inputArray) throws HokmahException {
+    /**
+     * Starts paging through new results, replacing whatever was listed before.
+     *
+     * @param results Results to page through
+     * @param format  Turns a page of the results into the message showing it
+     * @return The message showing the first page
+     */
+    private String[] showFirstPage(List<Task> results, Function<TaskPager.Page, String[]> format) {
+        pager = new TaskPager(results, pageSize, format);
+        return pager.nextMessage();
+    }
+
+    /**
+     * Finds which of the selected tasks are about to change completion, so the change can be undone.
+     *
+     * @return The change to record once it is made, or null if no task changes
+     */
+    private UndoHistory.MarkEdit getMarkEdit(BitSet indexes, boolean isMarking) {
+        BitSet changed = new BitSet();
+        for (int index = indexes.nextSetBit(0); index >= 0; index = indexes.nextSetBit(index + 1)) {
+            if (tasks.get(index).isDone() != isMarking) {
+                changed.set(index);
+            }
+        }
+
+        return changed.isEmpty() ? null : new UndoHistory.MarkEdit(changed, isMarking);
+    }
+
+    /**
+     * Records a change after it was made, so the history knows the version of the list it left behind.
+     */
+    private void recordEdit(UndoHistory.Edit edit) {
+        if (edit != null) {
+            history.record(edit, tasks);
+        }
+    }
+
+    /**
+     * Reads a selection of tasks: one index, indexes and ranges separated by commas, or {@code done}.
+     *
+     * @return Zero-based indexes of the selected tasks
+     */
+    private BitSet getTaskIndexes(String[] inputArray) throws HokmahException {
         if (inputArray.length == 1) {
             throw new HokmahException(ExceptionType.NO_INDEX);
         }
 
-        int index = parseTaskIndex(inputArray[1]);
-        return tasks.getTaskArrayList().get(index);
+        String selection = inputArray[1].trim();
+        if (selection.equals(DONE_SELECTION)) {
+            return tasks.doneIndexes();
+        }
+
+        BitSet indexes = new BitSet();
+        for (String part : selection.split(",")) {
+            String[] range = part.split("-", 2);
+            int first = parseTaskIndex(range[0].trim());
+            int last = range.length == 1 ? first : parseTaskIndex(range[1].trim());
+            if (last < first) {
+                throw new HokmahException(ExceptionType.TASK_NOT_FOUND);
+            }
+            indexes.set(first, last + 1);
+        }
+        return indexes;
     }
 
     private int parseTaskIndex(String indexString) throws HokmahException {
@@ -344,17 +701,41 @@ public class CommandHandler {
         }
     }
 
+    /**
+     * Gets the tasks due within a range, refusing ranges with too many occurrences of recurring tasks.
+     */
+    private List<Task> getDueTasks(LocalDateTime from, LocalDateTime to) throws HokmahException {
+        try {
+            return tasks.dueBetween(from, to);
+        } catch (IllegalArgumentException e) {
+            throw new HokmahException(ExceptionType.RANGE_TOO_LARGE);
+        }
+    }
+
+    private LocalDate parseDate(String date, ExceptionType exceptionType) throws HokmahException {
+        try {
+            return LocalDate.parse(date, DATE_INPUT);
+        } catch (DateTimeParseException e) {
+            throw new HokmahException(exceptionType);
+        }
+    }
+
+    private String formatDateTime(LocalDateTime dateTime) {
+        return dateTime.format(DATETIME_OUTPUT);
+    }
+
     private LocalDateTime parseDateTime(String dateTime, ExceptionType exceptionType) throws HokmahException {
         try {
-            return LocalDateTime.parse(dateTime, DateTimeFormatter.ofPattern(DATETIME_INPUT_FORMAT));
+            return LocalDateTime.parse(dateTime, DATETIME_INPUT);
         } catch (DateTimeParseException e) {
             throw new HokmahException(exceptionType);
         }
     }
 
-    private void saveTask(Task task) {
+    private void saveTask(Task task) throws HokmahException {
         tasks.add(task);
-        storage.saveToFile(tasks.getTaskArrayList());
+        history.record(new UndoHistory.AddEdit(task), tasks);
+        storage.saveAdd(tasks.asList(), task);
     }
 
 }
@@ -3,6 +3,7 @@ package hokmah.command;
 import static hokmah.Hokmah.EXIT_COMMANDS;
 
 import java.util.Arrays;
+import java.util.Set;
 
 import hokmah.exception.HokmahException;
 
@@ -11,6 +12,8 @@ import hokmah.exception.HokmahException;
  * Acts as bridge between raw input and command execution.
  */
 public class InputHandler {
+    private static final Set<String> READ_ONLY_COMMANDS = Set.of("list", CommandHandler.MORE_COMMAND, "find", "help",
+            "upcomingOn", "dueBetween", "dueToday", "nextDue", "overlaps", "happeningAt", "agenda");
 
     private final CommandHandler commandHandler;
 
@@ -24,6 +27,16 @@ public class InputHandler {
         this.commandHandler = commandHandler;
     }
 
+    /**
+     * Checks whether a command only reads the task list, so it can run alongside other reads.
+     *
+     * @param input Raw command string from user
+     * @return true if the command never changes tasks or storage
+     */
+    public static boolean isReadOnly(String input) {
+        return READ_ONLY_COMMANDS.contains(input.trim().split(" ", 2)[0]);
+    }
+
     /**
      * Processes and executes user input commands.
      *
@@ -45,7 +58,9 @@ public class InputHandler {
 
         switch (command) {
         case "list":
-            return commandHandler.showList();
+            return commandHandler.showList(inputArray);
+        case CommandHandler.MORE_COMMAND:
+            return commandHandler.showNextPage();
         case "find":
             return commandHandler.findCommand(inputArray);
         case "mark":
@@ -60,10 +75,30 @@ public class InputHandler {
             return commandHandler.addDeadline(inputArray);
         case "event":
             return commandHandler.addEvent(inputArray);
+        case "recur":
+            return commandHandler.addRecurring(inputArray);
         case "help":
             return commandHandler.help();
         case "upcomingOn":
             return commandHandler.upcomingTasksOn(inputArray);
+        case "dueBetween":
+            return commandHandler.dueBetween(inputArray);
+        case "dueToday":
+            return commandHandler.dueToday();
+        case "nextDue":
+            return commandHandler.nextDue(inputArray);
+        case "overlaps":
+            return commandHandler.overlaps(inputArray);
+        case "happeningAt":
+            return commandHandler.happeningAt(inputArray);
+        case "agenda":
+            return commandHandler.agenda(inputArray);
+        case "undo":
+            return commandHandler.undo();
+        case "redo":
+            return commandHandler.redo();
+        case BatchRunner.RUN_COMMAND:
+            return commandHandler.runBatch(inputArray, this);
         default:
             return commandHandler.unsupportedCommand();
         }
@@ -1,11 +1,13 @@
 package hokmah.command;
 
 
-import static hokmah.Hokmah.DATETIME_OUTPUT_FORMAT;
+import static hokmah.task.DateTimeFormats.DATETIME_OUTPUT;
+import static hokmah.task.DateTimeFormats.DATE_OUTPUT;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.stream.Collectors;
 
 import hokmah.task.Task;
@@ -16,7 +18,7 @@ import hokmah.task.Task;
  * Handles all UI text formatting and presentation logic.
  */
 public class MessageHandler {
-
+    public static final int MAX_LISTED_TASKS = 10;
 
 
     /**
@@ -86,6 +88,54 @@ public class MessageHandler {
         return messageLines;
     }
 
+    /**
+     * Generates the message for a selection, e.g. {@code done}, that matched no tasks.
+     *
+     * @return Formatted message
+     */
+    public String[] getNoTasksMatchedMessage() {
+        return new String[]{"None of your tasks matched. Did you even look at your list?"};
+    }
+
+    /**
+     * Generates confirmation message for many tasks marked as done at once.
+     *
+     * @param tasks The tasks that were marked
+     * @return Formatted confirmation message
+     */
+    public String[] getMarkTasksMessage(List<Task> tasks) {
+        assert tasks != null : "Null tasks in Mark message";
+
+        return getBulkMessage(tasks, "Bleh! I've masked these %d tasks as done!", "Are you happy?");
+    }
+
+    /**
+     * Generates confirmation message for many tasks marked as not done at once.
+     *
+     * @param tasks The tasks that were unmarked
+     * @return Formatted confirmation message
+     */
+    public String[] getUnmarkTasksMessage(List<Task> tasks) {
+        assert tasks != null : "Null tasks in Unmark message";
+
+        return getBulkMessage(tasks, "So you have not done these %d tasks yet?",
+                "That's sad. I've masked them as such.");
+    }
+
+    /**
+     * Generates confirmation message for many tasks deleted at once.
+     *
+     * @param tasks     The tasks that were removed
+     * @param taskCount The number of tasks left
+     * @return Formatted confirmation message
+     */
+    public String[] getDeleteTasksMessage(List<Task> tasks, int taskCount) {
+        assert tasks != null : "Null tasks in Delete message";
+
+        return getBulkMessage(tasks, "Ok sure, I've removed these %d tasks",
+                String.format("Now you have %d tasks in the list. What else do you want?", taskCount));
+    }
+
     /**
      * Generates task addition confirmation message.
      *
@@ -109,16 +159,14 @@ public class MessageHandler {
     }
 
     /**
-     * Generates message for unrecognized commands.
-     * Provides guidance on help command usage.
+     * Generates help information with available commands and formats.
      *
      * @return
      */
-    public String[] getUnsupportedCommandMessage() {
+    public String[] getHelpMessage() {
         String message = """
-                Ooookay? Just what are you trying to do?
-                Can you ask something else?
-                If you don't know what to ask you can use the 'help' command""";
+                You seriously need help? Fine.
+                I'll show you what I can do..""";
 
         String[] messageLines = message.split("\n");
 
@@ -126,86 +174,298 @@ public class MessageHandler {
     }
 
     /**
-     * Generates help information with available commands and formats.
+     * Generates a page of the numbered task list.
      *
-     * @return
+     * @param page Page of tasks, numbered by their position among all results
+     * @return Heading, numbered tasks and, if more pages follow, how to see them
      */
-    public String[] getHelpMessage() {
-        String message = """
-                You seriously need help? Fine.
-                I'll show you what I can do..""";
+    public String[] getListMessage(TaskPager.Page page) {
+        assert page != null : "Null page in list message";
 
-        String[] messageLines = message.split("\n");
+        if (page.tasks().isEmpty()) {
+            return getNoMorePagesMessage();
+        }
 
-        return messageLines;
+        StringBuilder tasksMessage = new StringBuilder();
+        appendNumbered(tasksMessage, page);
+        String heading = page.start() == 0 ? "You have these tasks" : "Here are more of them";
+        return withMoreHint(new String[]{heading, tasksMessage.toString()}, page);
+    }
+
+    /**
+     * Generates the message for asking for another page when every result was already shown.
+     *
+     * @return Message lines
+     */
+    public String[] getNoMorePagesMessage() {
+        return new String[]{"That's all of them. There's nothing more to show."};
     }
 
     /**
-     * Generates search results message.
+     * Generates a page of search results.
      *
-     * @param matches List of matching tasks
+     * @param page    Page of matching tasks
      * @param keyword Search term used
      * @return Formatted results message or 'no matches' message
      */
-    public String[] getFindMessage(ArrayList<Task> matches, String keyword) {
+    public String[] getFindMessage(TaskPager.Page page, String keyword) {
         assert keyword != null : "Null search keyword";
-        assert matches != null : "Null matches list";
+        assert page != null : "Null matches page";
 
-        if (matches.isEmpty()) {
+        if (page.total() == 0) {
             return new String[]{"No tasks found containing: " + keyword};
         }
 
         StringBuilder message = new StringBuilder("Here are the matching tasks in your list:\n\n");
+        appendNumbered(message, page);
+
+        return withMoreHint(new String[]{message.toString()}, page);
+    }
+
+    /**
+     * Generates a page of the upcoming tasks message for specified date.
+     *
+     * @param page        Page of tasks occurring on target date
+     * @param dateToCheck Date being checked for upcoming tasks
+     * @return Formatted list of upcoming tasks or empty state message
+     */
+    public String[] getUpcomingTasksOnMessage(TaskPager.Page page, LocalDateTime dateToCheck) {
+        assert dateToCheck != null : "Null date in upcoming tasks";
+
+        StringBuilder message = new StringBuilder();
+
+        String formattedDate = dateToCheck.format(DATETIME_OUTPUT);
+
+        if (page.total() == 0) {
+            message.append(String.format("You have no upcoming tasks on %s, dummy.", formattedDate));
+            return new String[]{message.toString()};
+        }
+
+        message.append("Your upcoming tasks on ")
+                .append(formattedDate)
+                .append(" is:\n\n");
+        for (Task task : page.tasks()) {
+            task.appendTo(message);
+            message.append("\n");
+        }
+        message.append("\n")
+                .append("You have ")
+                .append(page.total())
+                .append(" upcoming task(s). It's coming soon. Like your doom.");
+
+        return withMoreHint(new String[]{message.toString()}, page);
+    }
+
+    /**
+     * Generates a page of the message for tasks due within a period.
+     *
+     * @param page   Page of the tasks due in the period, in order of when they are due
+     * @param period Description of the period, e.g. "today"
+     * @return Formatted list of due tasks or empty state message
+     */
+    public String[] getDueTasksMessage(TaskPager.Page page, String period) {
+        assert period != null : "Null period in due tasks";
+        assert page != null : "Null page in due tasks";
 
-        String matchesString = matches.stream()
-                .map(task -> (matches.indexOf(task) + 1) + "." + task)
+        if (page.total() == 0) {
+            return new String[]{String.format("Nothing is due %s. Don't get lazy though.", period)};
+        }
+
+        StringBuilder message = new StringBuilder("Your tasks due ")
+                .append(period)
+                .append(":\n\n");
+
+        String dueTasksString = page.tasks().stream()
+                .map(Task::toString)
                 .collect(Collectors.joining("\n"));
 
-        message.append(matchesString);
+        message.append(dueTasksString)
+                .append("\n\n")
+                .append("That's ")
+                .append(page.total())
+                .append(" task(s). Better get moving.");
 
-        String[] messageLines = new String[]{message.toString()};
+        return withMoreHint(new String[]{message.toString()}, page);
+    }
 
-        return messageLines;
+    /**
+     * Generates a page of the message for events that are on during a period.
+     *
+     * @param page   Page of the events on during the period, in order of when they start
+     * @param period Description of the period, e.g. "at Oct 10 2024 02:00 PM"
+     * @return Formatted list of events or empty state message
+     */
+    public String[] getEventsMessage(TaskPager.Page page, String period) {
+        assert period != null : "Null period in events";
+        assert page != null : "Null page in events";
 
+        if (page.total() == 0) {
+            return new String[]{String.format("Nothing is happening %s. You're free, congratulations.", period)};
+        }
+
+        StringBuilder message = new StringBuilder("Here's what's happening ")
+                .append(period)
+                .append(":\n\n");
+
+        String eventsString = page.tasks().stream()
+                .map(Task::toString)
+                .collect(Collectors.joining("\n"));
+
+        message.append(eventsString)
+                .append("\n\n")
+                .append("That's ")
+                .append(page.total())
+                .append(" event(s). Don't double-book yourself.");
+
+        return withMoreHint(new String[]{message.toString()}, page);
     }
 
     /**
-     * Generates upcoming tasks message for specified date.
+     * Generates a page of an agenda, with the tasks of each day under a heading for that day.
+     * A day split across pages gets its heading again on the next page.
      *
-     * @param upcomingTasks List of tasks occurring on target date
-     * @param dateToCheck   Date being checked for upcoming tasks
-     * @return Formatted list of upcoming tasks or empty state message
+     * @param page   Page of the agenda's tasks, in order of day and then time
+     * @param days   Day each task of the whole agenda is listed under, in the same order as the tasks
+     * @param period Description of the days shown, e.g. "this week"
+     * @return Formatted agenda or empty state message
      */
-    public String[] getUpcomingTasksOnMessage(ArrayList<Task> upcomingTasks, LocalDateTime dateToCheck) {
-        assert dateToCheck != null : "Null date in upcoming tasks";
+    public String[] getAgendaMessage(TaskPager.Page page, List<LocalDate> days, String period) {
+        assert period != null : "Null period in agenda";
+        assert page != null : "Null page in agenda";
 
-        StringBuilder message = new StringBuilder();
+        if (page.total() == 0) {
+            return new String[]{String.format("Your agenda %s is empty. Lucky you.", period)};
+        }
+
+        StringBuilder message = new StringBuilder("Here's your agenda ")
+                .append(period)
+                .append(":");
+
+        LocalDate shownDay = null;
+        for (int i = 0; i < page.tasks().size(); i++) {
+            LocalDate day = days.get(page.start() + i);
+            if (!day.equals(shownDay)) {
+                message.append("\n\n")
+                        .append(DATE_OUTPUT.format(day))
+                        .append(":");
+                shownDay = day;
+            }
+            message.append("\n  ");
+            page.tasks().get(i).appendTo(message);
+        }
 
-        String formattedDate = dateToCheck.format(DateTimeFormatter.ofPattern(DATETIME_OUTPUT_FORMAT));
+        return withMoreHint(new String[]{message.toString()}, page);
+    }
 
+    /**
+     * Generates confirmation message for an undone change.
+     *
+     * @param description Description of the change, e.g. "deleting 3 tasks"
+     * @return Formatted confirmation message
+     */
+    public String[] getUndoMessage(String description) {
+        return new String[]{"Fine, I've undone " + description + ".", "Try not to make the same mistake again."};
+    }
 
+    /**
+     * Generates confirmation message for a redone change.
+     *
+     * @param description Description of the change, e.g. "deleting 3 tasks"
+     * @return Formatted confirmation message
+     */
+    public String[] getRedoMessage(String description) {
+        return new String[]{"Fine, I've redone " + description + ".", "So it wasn't a mistake after all?"};
+    }
 
-        if (upcomingTasks.isEmpty()) {
-            message.append(String.format("You have no upcoming tasks on %s, dummy.", formattedDate));
-        } else {
-            message.append("Your upcoming tasks on ")
-                    .append(formattedDate)
-                    .append(" is:\n\n");
-
-            String upcomingTasksString = upcomingTasks.stream()
-                                        .map(Task::toString)
-                                        .collect(Collectors.joining("\n"));
-
-            message.append(upcomingTasksString)
-                    .append("\n\n")
-                    .append("You have ")
-                    .append(upcomingTasks.size())
-                    .append(" upcoming task(s). It's coming soon. Like your doom.");
+    /**
+     * Generates the summary of a script run, with its throughput and the first failed commands.
+     *
+     * @param result Outcome of the run
+     * @param source Name of the script that was run
+     * @return Formatted summary lines
+     */
+    public String[] getBatchMessage(BatchRunner.Result result, String source) {
+        assert result != null : "Null batch result";
+
+        StringBuilder message = new StringBuilder(String.format(
+                "Ran %d commands from %s in %.2f s (%.0f commands/s). Happy now?",
+                result.commandCount(), source, result.elapsedNanos() / 1e9, result.getCommandsPerSecond()));
+
+        if (result.failureCount() > 0) {
+            message.append(String.format("\n%d of them failed, obviously:", result.failureCount()));
+            for (String failure : result.failures()) {
+                message.append("\n").append(failure);
+            }
         }
 
-        String[] messageLines = new String[]{message.toString()};
+        return message.toString().split("\n");
+    }
 
-        return messageLines;
+    /**
+     * Generates a reminder for a task that is coming up.
+     *
+     * @param task The deadline or event coming up
+     * @return Reminder message lines
+     */
+    public String[] getReminderMessage(Task task) {
+        assert task != null : "Null task in reminder";
+
+        String message = String.format("""
+                Hey! Don't tell me you forgot about this:
+                %s
+                It's coming up soon. Don't say I didn't warn you.""",
+                task);
+
+        return message.split("\n");
+    }
+
+    /**
+     * Appends the tasks of a page, one per line, numbered by their position among all results.
+     */
+    private static void appendNumbered(StringBuilder message, TaskPager.Page page) {
+        int number = page.start() + 1;
+        for (Task task : page.tasks()) {
+            assert task != null : "Task list contains null entries";
+
+            message.append(number++).append(".");
+            task.appendTo(message);
+            message.append("\n");
+        }
+    }
+
+    /**
+     * Adds a line telling how to see the next page, if there is one.
+     */
+    private static String[] withMoreHint(String[] messageLines, TaskPager.Page page) {
+        if (!page.hasMore()) {
+            return messageLines;
+        }
+
+        String[] withHint = Arrays.copyOf(messageLines, messageLines.length + 1);
+        withHint[messageLines.length] = String.format("Showing %d-%d of %d. Type '%s' for more.",
+                page.start() + 1, page.start() + page.tasks().size(), page.total(), CommandHandler.MORE_COMMAND);
+        return withHint;
+    }
+
+    /**
+     * Builds the message of a bulk operation, listing the first few tasks it changed.
+     */
+    private String[] getBulkMessage(List<Task> tasks, String header, String footer) {
+        if (tasks.isEmpty()) {
+            return getNoTasksMatchedMessage();
+        }
+
+        StringBuilder message = new StringBuilder(String.format(header, tasks.size()));
+        for (Task task : tasks.subList(0, Math.min(tasks.size(), MAX_LISTED_TASKS))) {
+            message.append("\n");
+            task.appendTo(message);
+        }
+        if (tasks.size() > MAX_LISTED_TASKS) {
+            message.append(String.format("\n...and %d more", tasks.size() - MAX_LISTED_TASKS));
+        }
+        message.append("\n").append(footer);
+
+        return message.toString().split("\n");
     }
 
     /**
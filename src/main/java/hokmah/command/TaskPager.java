@@ -0,0 +1,74 @@
+package hokmah.command;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import hokmah.task.Task;
+
+/**
+ * Hands out the results of a listing command one page at a time, so a long list is never built into
+ * one message. The pager keeps the results, or a view of the task list, where the next page starts, and
+ * how the command that made it formats a page, so every page of a search looks like a search.
+ * Only {@code list} pages over a view; the search, due, event and agenda commands still collect every match
+ * up front, since their matches have to be sorted, and only their messages are paged.
+ */
+class TaskPager {
+    /**
+     * One page of results.
+     *
+     * @param tasks Tasks on the page
+     * @param start Zero-based position of the page's first task among all results
+     * @param total Number of results on all pages
+     */
+    record Page(List<Task> tasks, int start, int total) {
+        boolean hasMore() {
+            return start + tasks.size() < total;
+        }
+    }
+
+    private final List<Task> results;
+    private final int pageSize;
+    private final Function<Page, String[]> format;
+    private int next = 0;
+
+    /**
+     * Creates a pager starting at the first result.
+     *
+     * @param results  Results to page through. A view of the task list shows its latest state on every page
+     * @param pageSize Maximum number of tasks on a page
+     * @param format   Turns a page into the message showing it
+     */
+    TaskPager(List<Task> results, int pageSize, Function<Page, String[]> format) {
+        assert pageSize > 0 : "Page size must be positive";
+        this.results = results;
+        this.pageSize = pageSize;
+        this.format = format;
+    }
+
+    /**
+     * Gets the next page and moves past it.
+     *
+     * @return The next page, empty if every result was shown
+     */
+    synchronized Page nextPage() {
+        int total = results.size();
+        int start = Math.min(next, total);
+        int end = Math.min(start + pageSize, total);
+        next = end;
+        return new Page(new ArrayList<>(results.subList(start, end)), start, total);
+    }
+
+    /**
+     * Gets the next page, formatted the way the command that made the pager shows it.
+     *
+     * @return Message lines of the next page
+     */
+    synchronized String[] nextMessage() {
+        return format.apply(nextPage());
+    }
+
+    synchronized boolean hasNext() {
+        return next < results.size();
+    }
+}
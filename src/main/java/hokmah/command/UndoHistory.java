@@ -0,0 +1,304 @@
+package hokmah.command;
+
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.List;
+
+import hokmah.data.SaveHandler;
+import hokmah.exception.HokmahException;
+import hokmah.exception.HokmahException.ExceptionType;
+import hokmah.task.Task;
+import hokmah.task.TaskList;
+
+/**
+ * Bounded history of changes to the task list, for undo and redo.
+ * A change is kept as the little it takes to revert and reapply it, never as a copy of the list:
+ * the added task, the positions whose completion flipped, or the removed tasks and their positions.
+ * Reverting and reapplying are saved like any other command. The oldest changes are forgotten
+ * once the history is full.
+ * Changes are kept by position, so they can only be reverted while nobody else changed the list in between,
+ * e.g. another client of a shared server. The history is dropped once that happens.
+ */
+class UndoHistory {
+    static final int DEFAULT_CAPACITY = 100;
+
+    /**
+     * Change to the task list that can be reverted and reapplied.
+     * Changing the list and saving the change are separate steps, so a change that cannot be saved
+     * can be taken back and the history stays in line with the list.
+     */
+    interface Edit {
+        void undo(TaskList tasks);
+
+        void redo(TaskList tasks);
+
+        void saveUndo(TaskList tasks, SaveHandler storage) throws HokmahException;
+
+        void saveRedo(TaskList tasks, SaveHandler storage) throws HokmahException;
+
+        /**
+         * Describes the change for confirmation messages, e.g. "deleting 3 tasks".
+         */
+        String getDescription();
+    }
+
+    /**
+     * Set of task positions stored relative to the first one, so a change near the end of a long list
+     * takes as little memory as one near the start.
+     */
+    static class Positions {
+        private final int first;
+        private final BitSet offsets;
+
+        Positions(BitSet indexes) {
+            this.first = Math.max(0, indexes.nextSetBit(0));
+            this.offsets = indexes.get(first, indexes.length());
+        }
+
+        BitSet toBitSet() {
+            BitSet indexes = new BitSet(first + offsets.length());
+            offsets.stream().forEach(offset -> indexes.set(first + offset));
+            return indexes;
+        }
+
+        int size() {
+            return offsets.cardinality();
+        }
+    }
+
+    /**
+     * A task appended to the end of the list.
+     */
+    static class AddEdit implements Edit {
+        private final Task task;
+
+        AddEdit(Task task) {
+            this.task = task;
+        }
+
+        @Override
+        public void undo(TaskList tasks) {
+            int index = tasks.size() - 1;
+            assert tasks.get(index) == task : "Added task must still be last";
+            tasks.delete(index);
+        }
+
+        @Override
+        public void redo(TaskList tasks) {
+            tasks.add(task);
+        }
+
+        @Override
+        public void saveUndo(TaskList tasks, SaveHandler storage) throws HokmahException {
+            storage.saveDelete(tasks.asList(), tasks.size());
+        }
+
+        @Override
+        public void saveRedo(TaskList tasks, SaveHandler storage) throws HokmahException {
+            storage.saveAdd(tasks.asList(), task);
+        }
+
+        @Override
+        public String getDescription() {
+            return "adding " + task.getName();
+        }
+    }
+
+    /**
+     * Tasks marked as done or not done. Only positions whose completion actually changed are kept,
+     * so reverting restores every task exactly.
+     */
+    static class MarkEdit implements Edit {
+        private final Positions positions;
+        private final boolean isMarking;
+
+        MarkEdit(BitSet indexes, boolean isMarking) {
+            this.positions = new Positions(indexes);
+            this.isMarking = isMarking;
+        }
+
+        @Override
+        public void undo(TaskList tasks) {
+            apply(tasks, !isMarking);
+        }
+
+        @Override
+        public void redo(TaskList tasks) {
+            apply(tasks, isMarking);
+        }
+
+        @Override
+        public void saveUndo(TaskList tasks, SaveHandler storage) throws HokmahException {
+            save(tasks, storage, !isMarking);
+        }
+
+        @Override
+        public void saveRedo(TaskList tasks, SaveHandler storage) throws HokmahException {
+            save(tasks, storage, isMarking);
+        }
+
+        @Override
+        public String getDescription() {
+            return (isMarking ? "marking " : "unmarking ") + describeCount(positions.size());
+        }
+
+        private void apply(TaskList tasks, boolean isDone) {
+            if (isDone) {
+                tasks.markAll(positions.toBitSet());
+            } else {
+                tasks.unmarkAll(positions.toBitSet());
+            }
+        }
+
+        private void save(TaskList tasks, SaveHandler storage, boolean isDone) throws HokmahException {
+            if (isDone) {
+                storage.saveMarkAll(tasks.asList(), positions.toBitSet());
+            } else {
+                storage.saveUnmarkAll(tasks.asList(), positions.toBitSet());
+            }
+        }
+    }
+
+    /**
+     * Tasks removed from the list, with the positions they had.
+     */
+    static class DeleteEdit implements Edit {
+        private final Positions positions;
+        private final List<Task> deleted;
+
+        DeleteEdit(BitSet indexes, List<Task> deleted) {
+            this.positions = new Positions(indexes);
+            this.deleted = deleted;
+        }
+
+        @Override
+        public void undo(TaskList tasks) {
+            tasks.insertAll(positions.toBitSet(), deleted);
+        }
+
+        @Override
+        public void redo(TaskList tasks) {
+            tasks.deleteAll(positions.toBitSet());
+        }
+
+        @Override
+        public void saveUndo(TaskList tasks, SaveHandler storage) throws HokmahException {
+            storage.saveInsertAll(tasks.asList(), positions.toBitSet(), deleted);
+        }
+
+        @Override
+        public void saveRedo(TaskList tasks, SaveHandler storage) throws HokmahException {
+            storage.saveDeleteAll(tasks.asList(), positions.toBitSet());
+        }
+
+        @Override
+        public String getDescription() {
+            return "deleting " + describeCount(deleted.size());
+        }
+    }
+
+    private final int capacity;
+    private final Deque<Edit> undoStack = new ArrayDeque<>();
+    private final Deque<Edit> redoStack = new ArrayDeque<>();
+    private long version = -1;
+
+    /**
+     * Creates an empty history.
+     *
+     * @param capacity Number of changes remembered
+     */
+    UndoHistory(int capacity) {
+        assert capacity > 0 : "Capacity must be positive";
+        this.capacity = capacity;
+    }
+
+    /**
+     * Remembers a change that was just made. Changes that were undone can no longer be redone.
+     *
+     * @param edit  The change
+     * @param tasks The list the change was made to
+     */
+    void record(Edit edit, TaskList tasks) {
+        redoStack.clear();
+        undoStack.push(edit);
+        if (undoStack.size() > capacity) {
+            undoStack.removeLast();
+        }
+        version = tasks.getVersion();
+    }
+
+    /**
+     * Reverts the latest change. If the reverted list cannot be saved, the change is put back
+     * and stays the latest one.
+     *
+     * @return The reverted change
+     * @throws HokmahException If there is nothing to undo, the list was changed by someone else
+     *                         or the change could not be saved
+     */
+    Edit undo(TaskList tasks, SaveHandler storage) throws HokmahException {
+        if (undoStack.isEmpty()) {
+            throw new HokmahException(ExceptionType.NOTHING_TO_UNDO);
+        }
+        checkUnchanged(tasks);
+
+        Edit edit = undoStack.peek();
+        edit.undo(tasks);
+        try {
+            edit.saveUndo(tasks, storage);
+        } catch (HokmahException e) {
+            edit.redo(tasks);
+            version = tasks.getVersion();
+            throw e;
+        }
+
+        redoStack.push(undoStack.pop());
+        version = tasks.getVersion();
+        return edit;
+    }
+
+    /**
+     * Reapplies the latest change that was undone. If the changed list cannot be saved, the change is
+     * reverted again and can still be redone.
+     *
+     * @return The reapplied change
+     * @throws HokmahException If there is nothing to redo, the list was changed by someone else
+     *                         or the change could not be saved
+     */
+    Edit redo(TaskList tasks, SaveHandler storage) throws HokmahException {
+        if (redoStack.isEmpty()) {
+            throw new HokmahException(ExceptionType.NOTHING_TO_REDO);
+        }
+        checkUnchanged(tasks);
+
+        Edit edit = redoStack.peek();
+        edit.redo(tasks);
+        try {
+            edit.saveRedo(tasks, storage);
+        } catch (HokmahException e) {
+            edit.undo(tasks);
+            version = tasks.getVersion();
+            throw e;
+        }
+
+        undoStack.push(redoStack.pop());
+        version = tasks.getVersion();
+        return edit;
+    }
+
+    /**
+     * Forgets the history if the list changed since the last change it knows of,
+     * since its positions may no longer point at the same tasks.
+     */
+    private void checkUnchanged(TaskList tasks) throws HokmahException {
+        if (tasks.getVersion() != version) {
+            undoStack.clear();
+            redoStack.clear();
+            throw new HokmahException(ExceptionType.UNDO_CONFLICT);
+        }
+    }
+
+    private static String describeCount(int count) {
+        return count == 1 ? "1 task" : count + " tasks";
+    }
+}
@@ -0,0 +1,233 @@
+package hokmah.data;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.zip.CRC32;
+
+import hokmah.task.Deadline;
+import hokmah.task.Event;
+import hokmah.task.RecurringTask;
+import hokmah.task.Task;
+import hokmah.task.ToDo;
+
+/**
+ * Encodes and decodes the binary save file layout.
+ * The file starts with a magic number, a format version and the journal sequence number,
+ * followed by one record per task and a footer holding the record count and a CRC32 checksum.
+ * Each record is a type byte, a done flag, the task's times in epoch minutes and its
+ * name as length-prefixed UTF-8. Recurring tasks have no times of their own; their record holds the
+ * rule instead: the first time, the frequency as a byte and the end of the series or {@link #NO_END}.
+ */
+class BinaryTaskFormat {
+    static final byte[] MAGIC = {'H', 'K', 'M', 'H'};
+    static final byte VERSION = 2;
+    static final long NO_END = Long.MIN_VALUE;
+
+    private static final byte MIN_VERSION = 1;
+    private static final int HEADER_SIZE = MAGIC.length + 1 + Long.BYTES;
+    private static final int FOOTER_SIZE = Integer.BYTES + Integer.BYTES;
+
+    private BinaryTaskFormat() {
+    }
+
+    /**
+     * Checks whether the given file contents start with the binary magic number.
+     *
+     * @param bytes Raw file contents
+     * @return true if the contents are in the binary layout
+     */
+    static boolean isBinary(ByteBuffer bytes) {
+        if (bytes.remaining() < MAGIC.length) {
+            return false;
+        }
+
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (bytes.get(bytes.position() + i) != MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Writes the tasks in the binary layout.
+     * The checksum must be fed by the stream underneath {@code out}.
+     *
+     * @param out      Destination stream
+     * @param checksum Checksum of everything written to {@code out} so far
+     * @param tasks    Tasks to write
+     * @param sequence Last journal sequence number the tasks contain
+     */
+    static void write(DataOutputStream out, CRC32 checksum, Iterable<Task> tasks, long sequence) throws IOException {
+        out.write(MAGIC);
+        out.writeByte(VERSION);
+        out.writeLong(sequence);
+
+        int count = 0;
+        for (Task task : tasks) {
+            if (task == null) {
+                continue;
+            }
+
+            out.writeByte(task.getType().charAt(0));
+            out.writeBoolean(task.isDone());
+            if (task.getTimeStart() != null) {
+                out.writeLong(toEpochMinute(task.getTimeStart()));
+            }
+            if (task.getTimeEnd() != null) {
+                out.writeLong(toEpochMinute(task.getTimeEnd()));
+            }
+            if (task instanceof RecurringTask recurringTask) {
+                out.writeLong(toEpochMinute(recurringTask.getFirst()));
+                out.writeByte(recurringTask.getFrequency().ordinal());
+                out.writeLong(recurringTask.getUntil() == null ? NO_END : toEpochMinute(recurringTask.getUntil()));
+            }
+
+            byte[] name = task.getName().getBytes(StandardCharsets.UTF_8);
+            writeLength(out, name.length);
+            out.write(name);
+            count++;
+        }
+
+        out.writeInt(count);
+        out.flush();
+        out.writeInt((int) checksum.getValue());
+        out.flush();
+    }
+
+    /**
+     * Reads and verifies a binary save file.
+     *
+     * @param bytes Raw file contents
+     * @return Contents of the file, or null if it is damaged or of an unknown version
+     */
+    static SnapshotFile.Contents read(ByteBuffer bytes) {
+        int start = bytes.position();
+        int end = bytes.limit();
+        if (end - start < HEADER_SIZE + FOOTER_SIZE || !isReadableVersion(bytes.get(start + MAGIC.length))) {
+            return null;
+        }
+
+        CRC32 checksum = new CRC32();
+        checksum.update(bytes.duplicate().limit(end - Integer.BYTES));
+        if ((int) checksum.getValue() != bytes.getInt(end - Integer.BYTES)) {
+            return null;
+        }
+
+        int count = bytes.getInt(end - FOOTER_SIZE);
+        ByteBuffer records = bytes.duplicate().position(start + MAGIC.length + 1).limit(end - FOOTER_SIZE);
+        long sequence = records.getLong();
+
+        ArrayList<Task> tasks = new ArrayList<>(count);
+        try {
+            for (int i = 0; i < count; i++) {
+                Task task = readTask(records);
+                if (task != null) {
+                    tasks.add(task);
+                }
+            }
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            return null;
+        }
+
+        return new SnapshotFile.Contents(sequence, tasks);
+    }
+
+    /**
+     * Checks whether this build can read a file version. Version 2 added recurring task records,
+     * so version 1 files are a subset of it, while builds that only know version 1 reject version 2 files.
+     */
+    private static boolean isReadableVersion(byte version) {
+        return version >= MIN_VERSION && version <= VERSION;
+    }
+
+    private static Task readTask(ByteBuffer records) {
+        char type = (char) records.get();
+        boolean isDone = records.get() != 0;
+
+        Task task;
+        switch (type) {
+        case 'T' -> task = new ToDo(readName(records));
+        case 'D' -> {
+            LocalDateTime timeEnd = fromEpochMinute(records.getLong());
+            task = new Deadline(readName(records), timeEnd);
+        }
+        case 'E' -> {
+            LocalDateTime timeStart = fromEpochMinute(records.getLong());
+            LocalDateTime timeEnd = fromEpochMinute(records.getLong());
+            task = new Event(readName(records), timeStart, timeEnd);
+        }
+        case 'R' -> {
+            LocalDateTime first = fromEpochMinute(records.getLong());
+            int frequency = records.get();
+            long until = records.getLong();
+            if (frequency < 0 || frequency >= RecurringTask.Frequency.values().length) {
+                throw new IllegalArgumentException("Invalid frequency " + frequency);
+            }
+            task = new RecurringTask(readName(records), first, RecurringTask.Frequency.values()[frequency],
+                    until == NO_END ? null : fromEpochMinute(until));
+        }
+        default -> throw new IllegalArgumentException("Invalid task type " + type);
+        }
+
+        if (isDone) {
+            task.markDone();
+        }
+        return task;
+    }
+
+    private static String readName(ByteBuffer records) {
+        int length = readLength(records);
+        if (length < 0 || length > records.remaining()) {
+            throw new BufferUnderflowException();
+        }
+
+        if (!records.hasArray()) {
+            byte[] name = new byte[length];
+            records.get(name);
+            return new String(name, StandardCharsets.UTF_8);
+        }
+
+        String name = new String(records.array(), records.arrayOffset() + records.position(), length,
+                StandardCharsets.UTF_8);
+        records.position(records.position() + length);
+        return name;
+    }
+
+    /**
+     * Writes a non-negative length using seven bits per byte, so short names cost a single byte.
+     */
+    private static void writeLength(DataOutputStream out, int length) throws IOException {
+        while (length >= 0x80) {
+            out.writeByte((length & 0x7F) | 0x80);
+            length >>>= 7;
+        }
+        out.writeByte(length);
+    }
+
+    private static int readLength(ByteBuffer records) {
+        int length = 0;
+        for (int shift = 0; shift < Integer.SIZE; shift += 7) {
+            byte b = records.get();
+            length |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return length;
+            }
+        }
+        throw new IllegalArgumentException("Invalid name length");
+    }
+
+    private static long toEpochMinute(LocalDateTime dateTime) {
+        return Math.floorDiv(dateTime.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    private static LocalDateTime fromEpochMinute(long epochMinute) {
+        return LocalDateTime.ofEpochSecond(epochMinute * 60, 0, ZoneOffset.UTC);
+    }
+}
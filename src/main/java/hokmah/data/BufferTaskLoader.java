@@ -0,0 +1,311 @@
+package hokmah.data;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import hokmah.exception.HokmahException;
+import hokmah.task.Deadline;
+import hokmah.task.Event;
+import hokmah.task.RecurringTask;
+import hokmah.task.Task;
+import hokmah.task.ToDo;
+
+/**
+ * Decodes text save files straight from a byte buffer holding the whole file.
+ * Files are read into the heap rather than memory-mapped, since a mapping stays open until it is
+ * garbage collected and would stop the file from being renamed to a backup on Windows.
+ * Record boundaries and fields are found by scanning the buffer, and dates are read digit by digit,
+ * so the only allocations per task are its name and the task itself.
+ * Large files can be split into chunks that are decoded in parallel.
+ */
+class BufferTaskLoader {
+    /**
+     * Largest file a heap buffer can hold.
+     */
+    static final int MAX_FILE_SIZE = Integer.MAX_VALUE - 8;
+
+    /**
+     * Ranges smaller than this are not worth splitting across threads.
+     */
+    static final int PARALLEL_THRESHOLD = 4 << 20;
+
+    private static final int CHUNKS_PER_THREAD = 4;
+    private static final int DATETIME_LENGTH = "yyyy-MM-dd HHmm".length();
+
+    private final ByteBuffer buffer;
+    private final Charset charset;
+    private byte[] scratch = new byte[64];
+
+    /**
+     * Creates a loader over the given file contents.
+     *
+     * @param buffer  File contents, positioned anywhere
+     * @param charset Encoding of task names
+     */
+    BufferTaskLoader(ByteBuffer buffer, Charset charset) {
+        this.buffer = buffer;
+        this.charset = charset;
+    }
+
+    /**
+     * Reads a whole file into a heap buffer. The file is closed when this returns.
+     *
+     * @param path File to read
+     * @return Buffer holding the whole file, positioned at its start
+     * @throws HokmahException If the file is larger than {@link #MAX_FILE_SIZE}
+     */
+    static ByteBuffer read(Path path) throws IOException, HokmahException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > MAX_FILE_SIZE) {
+                throw new HokmahException(HokmahException.ExceptionType.SAVE_FILE_TOO_LARGE);
+            }
+
+            ByteBuffer bytes = ByteBuffer.allocate((int) size);
+            while (bytes.hasRemaining() && channel.read(bytes) >= 0) {
+                // Keep reading until the buffer is full
+            }
+            return bytes.flip();
+        }
+    }
+
+    /**
+     * Decodes every record between two offsets of the buffer.
+     *
+     * @param start Offset of the first byte to decode
+     * @param end   Offset just past the last byte to decode
+     * @return Journal sequence from the header, if present, and the decoded tasks
+     */
+    SnapshotFile.Contents parse(int start, int end) {
+        long sequence = 0;
+        List<Task> tasks = new ArrayList<>();
+
+        int lineStart = start;
+        while (lineStart < end) {
+            int lineEnd = indexOf((byte) '\n', lineStart, end);
+            int contentEnd = lineEnd;
+            if (contentEnd > lineStart && buffer.get(contentEnd - 1) == '\r') {
+                contentEnd--;
+            }
+
+            if (contentEnd > lineStart) {
+                if (buffer.get(lineStart) == '#') {
+                    sequence = parseHeader(lineStart, contentEnd, sequence);
+                } else {
+                    Task task = parseRecord(lineStart, contentEnd);
+                    if (task != null) {
+                        tasks.add(task);
+                    }
+                }
+            }
+
+            lineStart = lineEnd + 1;
+        }
+
+        return new SnapshotFile.Contents(sequence, tasks);
+    }
+
+    /**
+     * Decodes every record between two offsets, splitting the range into newline-aligned chunks
+     * that are parsed on the common fork-join pool. Tasks are returned in file order.
+     *
+     * @param start Offset of the first byte to decode
+     * @param end   Offset just past the last byte to decode
+     * @return Journal sequence from the header, if present, and the decoded tasks
+     */
+    SnapshotFile.Contents parseParallel(int start, int end) {
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        int chunkCount = pool.getParallelism() * CHUNKS_PER_THREAD;
+        if (end - start < PARALLEL_THRESHOLD || chunkCount <= 1) {
+            return parse(start, end);
+        }
+
+        int chunkSize = (end - start) / chunkCount + 1;
+        List<ForkJoinTask<SnapshotFile.Contents>> chunks = new ArrayList<>(chunkCount);
+        int chunkStart = start;
+        while (chunkStart < end) {
+            int chunkEnd = Math.min(end, indexOf((byte) '\n', Math.min(end, chunkStart + chunkSize), end) + 1);
+            int from = chunkStart;
+            chunks.add(pool.submit(() -> new BufferTaskLoader(buffer.duplicate(), charset).parse(from, chunkEnd)));
+            chunkStart = chunkEnd;
+        }
+
+        long sequence = 0;
+        List<SnapshotFile.Contents> parsed = new ArrayList<>(chunks.size());
+        int taskCount = 0;
+        for (ForkJoinTask<SnapshotFile.Contents> chunk : chunks) {
+            SnapshotFile.Contents contents = chunk.join();
+            parsed.add(contents);
+            taskCount += contents.tasks().size();
+            if (contents.sequence() != 0) {
+                sequence = contents.sequence();
+            }
+        }
+
+        List<Task> tasks = new ArrayList<>(taskCount);
+        for (SnapshotFile.Contents contents : parsed) {
+            tasks.addAll(contents.tasks());
+        }
+        return new SnapshotFile.Contents(sequence, tasks);
+    }
+
+    /**
+     * Finds the next occurrence of a byte.
+     *
+     * @return Offset of the byte, or {@code end} if it does not occur
+     */
+    int indexOf(byte value, int from, int end) {
+        for (int i = from; i < end; i++) {
+            if (buffer.get(i) == value) {
+                return i;
+            }
+        }
+        return end;
+    }
+
+    private long parseHeader(int start, int end, long sequence) {
+        int headerLength = SnapshotFile.HEADER.length();
+        if (end - start <= headerLength) {
+            return sequence;
+        }
+
+        for (int i = 0; i < headerLength; i++) {
+            if (buffer.get(start + i) != SnapshotFile.HEADER.charAt(i)) {
+                return sequence;
+            }
+        }
+
+        long value = parseNumber(start + headerLength, end);
+        return value < 0 ? sequence : value;
+    }
+
+    /**
+     * Decodes a single {@code type|done|name[|time...]} record.
+     *
+     * @return The task, or null if the record is invalid
+     */
+    private Task parseRecord(int start, int end) {
+        int typeEnd = indexOf((byte) '|', start, end);
+        int doneEnd = indexOf((byte) '|', typeEnd + 1, end);
+        if (typeEnd != start + 1 || doneEnd >= end) {
+            System.out.println("Invalid task type");
+            return null;
+        }
+
+        byte type = buffer.get(start);
+        boolean isDone = doneEnd == typeEnd + 2 && buffer.get(typeEnd + 1) == '1';
+        int nameEnd = indexOf((byte) '|', doneEnd + 1, end);
+        String name = decode(doneEnd + 1, nameEnd);
+
+        Task task;
+        try {
+            switch (type) {
+            case 'T' -> task = new ToDo(name);
+            case 'D' -> task = new Deadline(name, parseDateTime(nameEnd + 1, end));
+            case 'E' -> {
+                int startEnd = indexOf((byte) '|', nameEnd + 1, end);
+                task = new Event(name, parseDateTime(nameEnd + 1, startEnd), parseDateTime(startEnd + 1, end));
+            }
+            case 'R' -> {
+                task = parseRecurring(name, nameEnd + 1, end);
+                if (task == null) {
+                    return null;
+                }
+            }
+            default -> {
+                System.out.println("Invalid task type");
+                return null;
+            }
+            }
+        } catch (DateTimeException e) {
+            System.out.println(name + " is not a valid date time format");
+            return null;
+        }
+
+        if (isDone) {
+            task.markDone();
+        }
+        return task;
+    }
+
+    /**
+     * Reads the rule of a recurring task: its first time, frequency and optional end.
+     */
+    private RecurringTask parseRecurring(String name, int start, int end) {
+        int firstEnd = indexOf((byte) '|', start, end);
+        int frequencyEnd = indexOf((byte) '|', firstEnd + 1, end);
+        RecurringTask.Frequency frequency = RecurringTask.Frequency.parse(decode(firstEnd + 1, frequencyEnd));
+        if (frequency == null) {
+            System.out.println(name + " does not have a valid frequency");
+            return null;
+        }
+
+        LocalDateTime until = frequencyEnd < end ? parseDateTime(frequencyEnd + 1, end) : null;
+        return new RecurringTask(name, parseDateTime(start, firstEnd), frequency, until);
+    }
+
+    /**
+     * Reads a {@code yyyy-MM-dd HHmm} field without going through a formatter.
+     * Only the first {@link #DATETIME_LENGTH} bytes of the field are used.
+     */
+    private LocalDateTime parseDateTime(int start, int end) {
+        if (end - start < DATETIME_LENGTH || buffer.get(start + 4) != '-' || buffer.get(start + 7) != '-'
+                || buffer.get(start + 10) != ' ') {
+            throw new DateTimeException("Invalid date time");
+        }
+
+        int year = parseDigits(start, 4);
+        int month = parseDigits(start + 5, 2);
+        int day = parseDigits(start + 8, 2);
+        int hour = parseDigits(start + 11, 2);
+        int minute = parseDigits(start + 13, 2);
+        return LocalDateTime.of(year, month, day, hour, minute);
+    }
+
+    private int parseDigits(int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new DateTimeException("Invalid date time");
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private long parseNumber(int start, int end) {
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private String decode(int start, int end) {
+        int length = end - start;
+        if (buffer.hasArray()) {
+            return new String(buffer.array(), buffer.arrayOffset() + start, length, charset);
+        }
+
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        buffer.get(start, scratch, 0, length);
+        return new String(scratch, 0, length, charset);
+    }
+}
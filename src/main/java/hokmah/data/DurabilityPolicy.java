@@ -0,0 +1,27 @@
+package hokmah.data;
+
+/**
+ * Decides when a change is written to disk relative to the command that made it.
+ */
+public enum DurabilityPolicy {
+    /**
+     * The command writes its own change before returning. No background writer is used.
+     */
+    IMMEDIATE,
+
+    /**
+     * A background writer flushes changes and the command waits for its change to be on disk.
+     * Commands issued while a flush is running are written together in the next flush.
+     */
+    EVERY_COMMAND,
+
+    /**
+     * Commands return at once and the background writer flushes their changes after the flush interval.
+     */
+    INTERVAL,
+
+    /**
+     * Commands return at once and changes are only flushed when the save handler is closed.
+     */
+    ON_EXIT
+}
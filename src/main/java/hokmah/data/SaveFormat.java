@@ -0,0 +1,23 @@
+package hokmah.data;
+
+/**
+ * On-disk layouts a save file can be written in.
+ * Loading detects the layout automatically, so this only affects how files are written.
+ */
+public enum SaveFormat {
+    /**
+     * Human readable pipe-separated lines, one task per line.
+     */
+    TEXT,
+
+    /**
+     * Compact binary records behind a versioned header.
+     */
+    BINARY,
+
+    /**
+     * Text records split into fixed ranges of task identifiers, each range in its own file.
+     * Only ranges holding changed or removed tasks are rewritten on save.
+     */
+    SEGMENTED
+}
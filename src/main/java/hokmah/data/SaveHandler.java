@@ -2,30 +2,63 @@ package hokmah.data;
 
 
 import static hokmah.exception.HokmahException.ExceptionType.NO_SAVE_FILE;
+import static hokmah.exception.HokmahException.ExceptionType.SAVE_FAILED;
+import static hokmah.task.DateTimeFormats.DATETIME_INPUT;
 
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
-import java.util.Scanner;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
-import hokmah.Hokmah;
 import hokmah.exception.HokmahException;
 import hokmah.task.Deadline;
 import hokmah.task.Event;
+import hokmah.task.RecurringTask;
 import hokmah.task.Task;
 import hokmah.task.ToDo;
 
 /**
  * Handles persistent storage operations for tasks.
  * Manages loading/saving tasks to/from files in pipe-separated format.
+ * Full saves are written to a temporary file and atomically renamed into place,
+ * either as text or in a compact binary layout (see {@link SaveFormat}).
+ * The segmented layout keys tasks by their stable identifiers and only rewrites the parts that changed.
+ * Changes can also be handed to a background writer (see {@link DurabilityPolicy}).
+ * When journaling is enabled, each mutation is appended to a small log instead of
+ * rewriting the whole file, and the log is periodically folded back into the file.
  */
 public class SaveHandler {
+    public static final int DEFAULT_COMPACTION_THRESHOLD = 1000;
+    public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 200;
+
+    private static final String COMPACTION_SUFFIX = ".compact.tmp";
+    private static final String WRITE_BEHIND_SUFFIX = ".writer.tmp";
 
     private String filePath;
+    private final TaskJournal journal;
+    private boolean isJournaling = false;
+    private SaveFormat format = SaveFormat.TEXT;
+    private boolean isParallelLoading = true;
+    private int compactionThreshold = DEFAULT_COMPACTION_THRESHOLD;
+    private ExecutorService compactor;
+    private Future<?> pendingCompaction;
+    private boolean isCompacting = false;
+    private boolean hasCompactionFailed = false;
+    private long snapshotGeneration = 0;
+    private DurabilityPolicy durabilityPolicy = DurabilityPolicy.IMMEDIATE;
+    private long flushIntervalMillis = DEFAULT_FLUSH_INTERVAL_MILLIS;
+    private WriteBehindWriter writeBehind;
+    private List<Task> pendingSnapshot;
+    private SegmentStore segmentStore;
 
     /**
      * Initializes storage handler with file path.
@@ -34,6 +67,105 @@ public class SaveHandler {
      */
     public SaveHandler(String filePath) {
         this.filePath = filePath;
+        this.journal = new TaskJournal(filePath);
+    }
+
+    /**
+     * Switches between rewriting the whole file on every change and appending to a journal.
+     *
+     * @param isJournaling true to append changes to a journal
+     */
+    public void setJournaling(boolean isJournaling) {
+        this.isJournaling = isJournaling;
+    }
+
+    public boolean isJournaling() {
+        return isJournaling;
+    }
+
+    /**
+     * Selects the layout used for full saves. Either layout can always be loaded.
+     *
+     * @param format Layout to write
+     */
+    public void setFormat(SaveFormat format) {
+        this.format = format;
+    }
+
+    public SaveFormat getFormat() {
+        return format;
+    }
+
+    /**
+     * Enables splitting large text save files into chunks that are parsed on several threads.
+     * Tasks are loaded in the same order either way.
+     *
+     * @param isParallelLoading true to parse large files in parallel
+     */
+    public void setParallelLoading(boolean isParallelLoading) {
+        this.isParallelLoading = isParallelLoading;
+    }
+
+    /**
+     * Moves writing of changes to a background thread that writes bursts of changes together.
+     * The policy decides whether commands wait for their change to reach the disk.
+     *
+     * @param policy         When changes are written relative to the commands that made them
+     * @param intervalMillis How long changes are collected under {@link DurabilityPolicy#INTERVAL}
+     * @throws HokmahException If changes pending under the previous policy could not be written
+     */
+    public void setDurabilityPolicy(DurabilityPolicy policy, long intervalMillis) throws HokmahException {
+        close();
+
+        synchronized (this) {
+            durabilityPolicy = policy;
+            flushIntervalMillis = intervalMillis;
+            if (policy != DurabilityPolicy.IMMEDIATE) {
+                writeBehind = new WriteBehindWriter(this::flushPending, policy, intervalMillis);
+            }
+        }
+    }
+
+    public DurabilityPolicy getDurabilityPolicy() {
+        return durabilityPolicy;
+    }
+
+    public long getFlushIntervalMillis() {
+        return flushIntervalMillis;
+    }
+
+    /**
+     * Writes every change that is still pending and stops the background writer, if there is one.
+     *
+     * @throws HokmahException If the pending changes could not be written
+     */
+    public void close() throws HokmahException {
+        WriteBehindWriter writer;
+        synchronized (this) {
+            writer = writeBehind;
+            writeBehind = null;
+            durabilityPolicy = DurabilityPolicy.IMMEDIATE;
+        }
+
+        if (writer == null) {
+            return;
+        }
+
+        try {
+            writer.close();
+        } catch (IOException e) {
+            throw new HokmahException(SAVE_FAILED);
+        }
+    }
+
+    /**
+     * Sets how many journal records may accumulate before they are compacted into the save file.
+     *
+     * @param compactionThreshold Number of records that triggers a background compaction
+     */
+    public void setCompactionThreshold(int compactionThreshold) {
+        assert compactionThreshold > 0 : "Compaction threshold must be positive";
+        this.compactionThreshold = compactionThreshold;
     }
 
     /**
@@ -41,23 +173,30 @@ public class SaveHandler {
      *
      * @param tasks List of tasks to save
      * @param path  Custom save location
+     * @throws HokmahException If the tasks could not be written
      */
-    public void saveToFile(ArrayList<Task> tasks, String path) {
-        File file = new File(path);
+    public synchronized void saveToFile(List<Task> tasks, String path) throws HokmahException {
+        boolean isOwnFile = path.equals(filePath);
+        long sequence = isOwnFile ? journal.getLastSequence() : 0;
+
         try {
-            file.getParentFile().mkdirs();
-            file.createNewFile();
-            FileWriter writer = new FileWriter(file);
+            if (format == SaveFormat.SEGMENTED) {
+                getSegmentStore(path).write(tasks, sequence);
+            } else {
+                createSnapshotFile(path).write(tasks, sequence);
+            }
 
-            for (Task task : tasks) {
-                if (task != null) {
-                    writer.write(task.getSaveText() + "\n");
+            if (isOwnFile) {
+                snapshotGeneration++;
+                journal.reset();
+                pendingSnapshot = null;
+                hasCompactionFailed = false;
+                if (writeBehind != null) {
+                    writeBehind.markAllFlushed();
                 }
             }
-
-            writer.close();
         } catch (IOException e) {
-            e.printStackTrace();
+            throw new HokmahException(SAVE_FAILED);
         }
     }
 
@@ -66,54 +205,169 @@ public class SaveHandler {
      * Saves tasks to default file path.
      *
      * @param tasks List of tasks to save
+     * @throws HokmahException If the tasks could not be written
      */
-    public void saveToFile(ArrayList<Task> tasks) {
+    public void saveToFile(List<Task> tasks) throws HokmahException {
         saveToFile(tasks, filePath);
     }
 
+    /**
+     * Rewrites a save file in another layout, e.g. to convert a text file to binary or back.
+     *
+     * @param sourcePath   Save file to read, in either layout
+     * @param targetPath   Location of the converted file
+     * @param targetFormat Layout of the converted file
+     * @throws HokmahException If the file could not be read or written
+     */
+    public static void convert(String sourcePath, String targetPath, SaveFormat targetFormat) throws HokmahException {
+        SaveHandler source = new SaveHandler(sourcePath);
+        ArrayList<Task> tasks = source.loadFromFile();
+
+        SaveHandler target = new SaveHandler(targetPath);
+        target.setFormat(targetFormat);
+        target.saveToFile(tasks);
+    }
+
+    /**
+     * Persists a newly appended task.
+     *
+     * @param tasks List of tasks after the addition
+     * @param task  The task that was added
+     * @throws HokmahException If the change could not be written
+     */
+    public void saveAdd(List<Task> tasks, Task task) throws HokmahException {
+        saveChange(tasks, TaskJournal.ADD, task.getSaveText());
+    }
+
+    /**
+     * Persists a task being marked as done.
+     *
+     * @param tasks List of tasks after the change
+     * @param index Zero-based index of the marked task
+     * @throws HokmahException If the change could not be written
+     */
+    public void saveMark(List<Task> tasks, int index) throws HokmahException {
+        saveChange(tasks, TaskJournal.MARK, String.valueOf(index));
+    }
+
+    /**
+     * Persists a task being marked as not done.
+     *
+     * @param tasks List of tasks after the change
+     * @param index Zero-based index of the unmarked task
+     * @throws HokmahException If the change could not be written
+     */
+    public void saveUnmark(List<Task> tasks, int index) throws HokmahException {
+        saveChange(tasks, TaskJournal.UNMARK, String.valueOf(index));
+    }
+
+    /**
+     * Persists the removal of a task.
+     *
+     * @param tasks List of tasks after the removal
+     * @param index Zero-based index the task had before it was removed
+     * @throws HokmahException If the change could not be written
+     */
+    public void saveDelete(List<Task> tasks, int index) throws HokmahException {
+        saveChange(tasks, TaskJournal.DELETE, String.valueOf(index));
+    }
+
+    /**
+     * Persists many tasks being marked as done with a single record or save.
+     *
+     * @param tasks   List of tasks after the change
+     * @param indexes Zero-based indexes of the marked tasks, at least one
+     * @throws HokmahException If the change could not be written
+     */
+    public void saveMarkAll(List<Task> tasks, BitSet indexes) throws HokmahException {
+        requireIndexes(indexes);
+        saveChange(tasks, TaskJournal.MARK, TaskJournal.encodeIndexes(indexes));
+    }
+
+    /**
+     * Persists many tasks being marked as not done with a single record or save.
+     *
+     * @param tasks   List of tasks after the change
+     * @param indexes Zero-based indexes of the unmarked tasks, at least one
+     * @throws HokmahException If the change could not be written
+     */
+    public void saveUnmarkAll(List<Task> tasks, BitSet indexes) throws HokmahException {
+        requireIndexes(indexes);
+        saveChange(tasks, TaskJournal.UNMARK, TaskJournal.encodeIndexes(indexes));
+    }
+
+    /**
+     * Persists the removal of many tasks with a single record or save.
+     *
+     * @param tasks   List of tasks after the removal
+     * @param indexes Zero-based indexes the tasks had before they were removed, at least one
+     * @throws HokmahException If the change could not be written
+     */
+    public void saveDeleteAll(List<Task> tasks, BitSet indexes) throws HokmahException {
+        requireIndexes(indexes);
+        saveChange(tasks, TaskJournal.DELETE, TaskJournal.encodeIndexes(indexes));
+    }
+
+    /**
+     * Persists tasks being put back at the positions they were removed from, e.g. when a delete is undone.
+     *
+     * @param tasks    List of tasks after the insertion
+     * @param indexes  Zero-based positions of the inserted tasks after the insertion
+     * @param inserted The inserted tasks, in order of position
+     * @throws HokmahException If the change could not be written
+     */
+    public void saveInsertAll(List<Task> tasks, BitSet indexes, List<Task> inserted) throws HokmahException {
+        requireIndexes(indexes);
+        assert indexes.cardinality() == inserted.size() : "Every inserted task needs a position";
+
+        String[] payloads = new String[inserted.size()];
+        int i = 0;
+        for (int index = indexes.nextSetBit(0); index >= 0; index = indexes.nextSetBit(index + 1)) {
+            payloads[i] = index + "|" + inserted.get(i).getSaveText();
+            i++;
+        }
+        saveChange(tasks, TaskJournal.INSERT, payloads);
+    }
+
+    /**
+     * Refuses an empty selection, which would otherwise be journaled as a record that changes nothing.
+     */
+    private static void requireIndexes(BitSet indexes) {
+        if (indexes.isEmpty()) {
+            throw new IllegalArgumentException("No tasks to save");
+        }
+    }
+
     /**
      * Loads tasks from specified file path.
+     * A damaged save file is skipped in favour of the previous generation.
      *
      * @param path Custom load location
      * @return List of loaded tasks
      */
-    public ArrayList<Task> loadFromFile(String path) throws HokmahException {
+    public synchronized ArrayList<Task> loadFromFile(String path) throws HokmahException {
         ArrayList<Task> tasks = new ArrayList<Task>();
-        File file = new File(path);
 
-        Scanner scanner;
+        SnapshotFile.Contents contents;
         try {
-            file.getParentFile().mkdirs();
-            file.createNewFile();
-
-            scanner = new Scanner(file);
-            scanner.useDelimiter("\n");
-        } catch (Exception e) {
+            new File(path).getAbsoluteFile().getParentFile().mkdirs();
+            contents = SegmentStore.isSegmented(Path.of(path))
+                    ? getSegmentStore(path).read(this::parseSaveText)
+                    : createSnapshotFile(path).read();
+        } catch (IOException e) {
             throw new HokmahException(NO_SAVE_FILE);
         }
 
-        while (scanner.hasNext()) {
-            String[] taskInfo = scanner.next().split("\\|");
-            String taskType = taskInfo[0];
-
-            Task task = null;
+        tasks.addAll(contents.tasks());
 
-            switch (taskType) {
-            case "T" -> task = loadTodoSave(taskInfo);
-            case "D" -> task = loadDeadlineSave(taskInfo);
-            case "E" -> task = loadEventSave(taskInfo);
-            default -> System.out.println("Invalid task type");
+        if (path.equals(filePath)) {
+            try {
+                journal.replay(tasks, contents.sequence(), this::parseSaveText);
+            } catch (IOException e) {
+                throw new HokmahException(NO_SAVE_FILE);
             }
-
-            if (task == null) {
-                continue;
-            }
-
-            tasks.add(task);
         }
 
-        scanner.close();
-
         return tasks;
     }
 
@@ -126,6 +380,270 @@ public class SaveHandler {
         return loadFromFile(filePath);
     }
 
+    /**
+     * Writes the full task list, or appends journal records when journaling is enabled.
+     * Several records of one change are written together and cause at most one full save.
+     * With a background writer the change is only queued, and the durability policy decides
+     * whether to wait for it to be written. A queued full save keeps the list itself and copies it
+     * when it is written, so the list should be a live view, e.g. {@code TaskList.asList()}.
+     */
+    private void saveChange(List<Task> tasks, char operation, String... payloads) throws HokmahException {
+        long ticket;
+        WriteBehindWriter writer;
+        DurabilityPolicy policy;
+
+        synchronized (this) {
+            throwCompactionFailure();
+            writer = writeBehind;
+            policy = durabilityPolicy;
+            if (writer == null) {
+                saveChangeNow(tasks, operation, payloads);
+                return;
+            }
+
+            try {
+                writer.throwFailure();
+            } catch (IOException e) {
+                throw new HokmahException(SAVE_FAILED);
+            }
+
+            if (isJournaling && format != SaveFormat.SEGMENTED) {
+                for (String payload : payloads) {
+                    journal.buffer(operation, payload);
+                }
+            } else {
+                // The writer only ever needs the latest version of the list, so it reads it when it flushes
+                pendingSnapshot = tasks;
+            }
+            ticket = writer.markDirty();
+        }
+
+        if (policy == DurabilityPolicy.EVERY_COMMAND) {
+            try {
+                writer.awaitFlushed(ticket);
+            } catch (IOException e) {
+                throw new HokmahException(SAVE_FAILED);
+            }
+        }
+    }
+
+    private void saveChangeNow(List<Task> tasks, char operation, String... payloads) throws HokmahException {
+        // Segmented saves only write what changed, so they need no journal
+        if (!isJournaling || format == SaveFormat.SEGMENTED) {
+            saveToFile(tasks);
+            return;
+        }
+
+        try {
+            for (String payload : payloads) {
+                journal.append(operation, payload);
+            }
+            if (journal.getRecordCount() >= compactionThreshold) {
+                startCompaction();
+            }
+        } catch (IOException e) {
+            throw new HokmahException(SAVE_FAILED);
+        }
+    }
+
+    /**
+     * Writes the changes queued for the background writer. Journal records are written in one batch;
+     * a queued full save is written outside the lock and discarded if a newer full save overtook it.
+     */
+    private void flushPending() throws IOException {
+        List<Task> pending;
+        long generation;
+        long sequence;
+
+        synchronized (this) {
+            journal.writeBuffered();
+            if (journal.getRecordCount() >= compactionThreshold) {
+                startCompaction();
+            }
+
+            pending = pendingSnapshot;
+            pendingSnapshot = null;
+            generation = snapshotGeneration;
+            sequence = journal.getLastSequence();
+        }
+
+        if (pending == null) {
+            return;
+        }
+
+        ArrayList<Task> snapshot = new ArrayList<>(pending);
+        SnapshotFile snapshotFile = createSnapshotFile(filePath);
+        Path temp = Path.of(filePath + WRITE_BEHIND_SUFFIX);
+        try {
+            if (format != SaveFormat.SEGMENTED) {
+                snapshotFile.writeTo(temp, snapshot, sequence);
+            }
+
+            synchronized (this) {
+                if (generation == snapshotGeneration) {
+                    if (format == SaveFormat.SEGMENTED) {
+                        // Only changed segments are written, which is quick enough to do under the lock
+                        getSegmentStore(filePath).write(snapshot, sequence);
+                    } else {
+                        snapshotFile.commit(temp);
+                    }
+                    snapshotGeneration++;
+                    journal.reset();
+                }
+            }
+        } catch (IOException e) {
+            synchronized (this) {
+                if (pendingSnapshot == null && generation == snapshotGeneration) {
+                    pendingSnapshot = pending;
+                }
+            }
+            throw e;
+        } finally {
+            temp.toFile().delete();
+        }
+    }
+
+    /**
+     * Moves the current journal aside and folds it into the save file on a background thread.
+     */
+    private void startCompaction() throws IOException {
+        if (isCompacting) {
+            return;
+        }
+
+        // A rotated journal left behind by an interrupted run is compacted before rotating again
+        if (!journal.hasPendingCompaction() && !journal.rotate()) {
+            return;
+        }
+
+        isCompacting = true;
+        long generation = snapshotGeneration;
+
+        if (compactor == null) {
+            compactor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "hokmah-compactor");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        pendingCompaction = compactor.submit(() -> compact(generation));
+    }
+
+    /**
+     * Blocks until the most recently started compaction has finished.
+     */
+    void awaitCompaction() throws InterruptedException, ExecutionException {
+        Future<?> compaction;
+        synchronized (this) {
+            compaction = pendingCompaction;
+        }
+
+        if (compaction != null) {
+            compaction.get();
+        }
+    }
+
+    /**
+     * Replays the rotated journal on top of the save file and atomically replaces the save file.
+     * The result is discarded if a full save happened in the meantime.
+     * Failures leave the rotated journal in place so it is retried on the next compaction.
+     *
+     * @param generation Snapshot generation at the time the journal was rotated
+     */
+    private void compact(long generation) {
+        SnapshotFile snapshot = createSnapshotFile(filePath);
+        Path temp = Path.of(filePath + COMPACTION_SUFFIX);
+
+        try {
+            SnapshotFile.Contents contents = snapshot.read();
+            ArrayList<Task> tasks = new ArrayList<>(contents.tasks());
+
+            long sequence = new TaskJournal(filePath)
+                    .replayCompacting(tasks, contents.sequence(), this::parseSaveText);
+            snapshot.writeTo(temp, tasks, sequence);
+
+            synchronized (this) {
+                if (generation == snapshotGeneration) {
+                    snapshot.commit(temp);
+                    Files.deleteIfExists(journal.getCompactingPath());
+                    snapshotGeneration++;
+                }
+            }
+        } catch (IOException | HokmahException e) {
+            synchronized (this) {
+                hasCompactionFailed = true;
+            }
+        } finally {
+            temp.toFile().delete();
+            synchronized (this) {
+                isCompacting = false;
+            }
+        }
+    }
+
+    /**
+     * Reports a failed background compaction to the next change, the same way a failed save is reported.
+     * The rotated journal is still in place, so nothing is lost and the compaction is retried later.
+     */
+    private void throwCompactionFailure() throws HokmahException {
+        if (hasCompactionFailed) {
+            hasCompactionFailed = false;
+            throw new HokmahException(SAVE_FAILED);
+        }
+    }
+
+    /**
+     * Gets the segment store of a save file. The store of the handler's own file is kept,
+     * since it remembers which segments are already up to date.
+     */
+    private SegmentStore getSegmentStore(String path) {
+        if (!path.equals(filePath)) {
+            return new SegmentStore(path, false);
+        }
+
+        if (segmentStore == null) {
+            segmentStore = new SegmentStore(path, true);
+        }
+        return segmentStore;
+    }
+
+    /**
+     * Gets the number of segment files written by the last save of the handler's own file.
+     */
+    int getSegmentsWritten() {
+        return segmentStore == null ? 0 : segmentStore.getSegmentsWritten();
+    }
+
+    private SnapshotFile createSnapshotFile(String path) {
+        SnapshotFile snapshot = new SnapshotFile(path, format);
+        snapshot.setParallel(isParallelLoading);
+        return snapshot;
+    }
+
+    /**
+     * Converts a single line of save text into a task.
+     *
+     * @param saveText Pipe-separated task information
+     * @return The task, or null if the line is invalid
+     */
+    private Task parseSaveText(String saveText) {
+        String[] taskInfo = saveText.split("\\|");
+        String taskType = taskInfo[0];
+
+        Task task = null;
+
+        switch (taskType) {
+        case "T" -> task = loadTodoSave(taskInfo);
+        case "D" -> task = loadDeadlineSave(taskInfo);
+        case "E" -> task = loadEventSave(taskInfo);
+        case "R" -> task = loadRecurringSave(taskInfo);
+        default -> System.out.println("Invalid task type");
+        }
+
+        return task;
+    }
+
     /**
      * Loads a Todo task from save text.
      *
@@ -154,8 +672,7 @@ public class SaveHandler {
         Deadline task = null;
 
         try {
-            LocalDateTime DeadlineEndTime = LocalDateTime.parse(taskInfo[3],
-                    DateTimeFormatter.ofPattern(Hokmah.DATETIME_INPUT_FORMAT));
+            LocalDateTime DeadlineEndTime = LocalDateTime.parse(taskInfo[3], DATETIME_INPUT);
             task = new Deadline(taskName, DeadlineEndTime);
 
             if (taskInfo[1].equals("1")) {
@@ -179,10 +696,8 @@ public class SaveHandler {
         Event task = null;
 
         try {
-            LocalDateTime EventStartTime = LocalDateTime.parse(taskInfo[3],
-                    DateTimeFormatter.ofPattern(Hokmah.DATETIME_INPUT_FORMAT));
-            LocalDateTime eventEndTime = LocalDateTime.parse(taskInfo[4],
-                    DateTimeFormatter.ofPattern(Hokmah.DATETIME_INPUT_FORMAT));
+            LocalDateTime EventStartTime = LocalDateTime.parse(taskInfo[3], DATETIME_INPUT);
+            LocalDateTime eventEndTime = LocalDateTime.parse(taskInfo[4], DATETIME_INPUT);
             task = new Event(taskName, EventStartTime, eventEndTime);
 
             if (taskInfo[1].equals("1")) {
@@ -195,5 +710,35 @@ public class SaveHandler {
         return task;
     }
 
+    /**
+     * Loads a RecurringTask from save text. The end of the series is optional.
+     *
+     * @param taskInfo - String array containing information about the task
+     * @return Task object of the loaded RecurringTask
+     */
+    private Task loadRecurringSave(String[] taskInfo) {
+        String taskName = taskInfo[2];
+        RecurringTask task = null;
+
+        try {
+            LocalDateTime firstTime = LocalDateTime.parse(taskInfo[3], DATETIME_INPUT);
+            RecurringTask.Frequency frequency = RecurringTask.Frequency.parse(taskInfo[4]);
+            LocalDateTime untilTime = taskInfo.length > 5 ? LocalDateTime.parse(taskInfo[5], DATETIME_INPUT) : null;
+            if (frequency == null) {
+                System.out.println(taskName + " does not have a valid frequency");
+                return null;
+            }
+            task = new RecurringTask(taskName, firstTime, frequency, untilTime);
+
+            if (taskInfo[1].equals("1")) {
+                task.markDone();
+            }
+        } catch (DateTimeParseException e) {
+            System.out.println(taskName + " is not a valid date time format");
+        }
+
+        return task;
+    }
+
 
 }
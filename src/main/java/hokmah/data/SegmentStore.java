@@ -0,0 +1,337 @@
+package hokmah.data;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+
+import hokmah.task.Task;
+
+/**
+ * Stores the task list as a small manifest plus one file per fixed range of task identifiers.
+ * Identifiers never change and new tasks get the next free one, so a change to a task, or its removal,
+ * only ever affects the segment holding its identifier. Saving rewrites just those segments,
+ * each atomically, and the manifest, so the bytes written do not grow with the size of the list.
+ */
+class SegmentStore {
+    static final String HEADER = "#segments|";
+    static final String DIRECTORY_SUFFIX = ".segments";
+
+    /**
+     * Number of task identifiers covered by one segment file.
+     */
+    static final int SEGMENT_SIZE = 256;
+
+    private static final String SEGMENT_EXTENSION = ".txt";
+
+    private final Path path;
+    private final Path directory;
+    private final boolean isLiveSave;
+
+    // Number of tasks in each segment file as last written or read, -1 if unknown
+    private final Map<Long, Integer> storedCounts = new HashMap<>();
+    private boolean isScanned = false;
+    private long nextId = 1;
+    private int segmentsWritten = 0;
+
+    /**
+     * Creates a store whose manifest is the given save file.
+     *
+     * @param path       Location of the save file
+     * @param isLiveSave Whether this is the save the tasks' dirty flags track. Other stores, e.g. the target
+     *                   of a conversion, leave the flags alone so the live save still writes those changes
+     */
+    SegmentStore(String path, boolean isLiveSave) {
+        this.path = Path.of(path);
+        this.directory = Path.of(path + DIRECTORY_SUFFIX);
+        this.isLiveSave = isLiveSave;
+    }
+
+    /**
+     * Checks whether a save file is the manifest of a segmented save.
+     *
+     * @param path Location of the save file
+     * @return true if the file starts with the segment manifest header
+     */
+    static boolean isSegmented(Path path) throws IOException {
+        if (!Files.isRegularFile(path)) {
+            return false;
+        }
+
+        byte[] header = HEADER.getBytes(StandardCharsets.UTF_8);
+        byte[] start = new byte[header.length];
+        try (InputStream in = Files.newInputStream(path)) {
+            return in.readNBytes(start, 0, start.length) == start.length && Arrays.equals(start, header);
+        }
+    }
+
+    /**
+     * Writes the segments holding new, changed or removed tasks, then the manifest.
+     * Tasks without an identifier are given the next free ones.
+     *
+     * @param tasks    Tasks in list order
+     * @param sequence Last journal sequence number the tasks contain
+     */
+    void write(List<Task> tasks, long sequence) throws IOException {
+        Files.createDirectories(directory);
+        scanStoredSegments();
+
+        Map<Long, Integer> counts = new HashMap<>();
+        Set<Long> changed = new HashSet<>();
+        for (Task task : tasks) {
+            if (task == null) {
+                continue;
+            }
+            if (task.getId() == 0) {
+                task.setId(nextId);
+            }
+            nextId = Math.max(nextId, task.getId() + 1);
+
+            long segment = segmentOf(task);
+            counts.merge(segment, 1, Integer::sum);
+            if (task.isDirty()) {
+                changed.add(segment);
+            }
+        }
+
+        for (Map.Entry<Long, Integer> entry : counts.entrySet()) {
+            if (!entry.getValue().equals(storedCounts.get(entry.getKey()))) {
+                changed.add(entry.getKey());
+            }
+        }
+
+        Map<Long, List<Task>> segments = new TreeMap<>();
+        for (Task task : tasks) {
+            if (task != null && changed.contains(segmentOf(task))) {
+                segments.computeIfAbsent(segmentOf(task), segment -> new ArrayList<>()).add(task);
+            }
+        }
+
+        segmentsWritten = 0;
+        for (Map.Entry<Long, List<Task>> entry : segments.entrySet()) {
+            writeSegment(entry.getKey(), entry.getValue());
+            storedCounts.put(entry.getKey(), entry.getValue().size());
+            segmentsWritten++;
+        }
+
+        for (Long segment : new ArrayList<>(storedCounts.keySet())) {
+            if (!counts.containsKey(segment)) {
+                Files.deleteIfExists(segmentPath(segment));
+                storedCounts.remove(segment);
+                segmentsWritten++;
+            }
+        }
+
+        writeManifest(sequence);
+    }
+
+    /**
+     * Reads the manifest and every segment in identifier order.
+     * A damaged segment is reported and skipped so the rest of the list still loads.
+     *
+     * @param parser Converts a line of save text into a task, returning null if it is invalid
+     * @return Journal sequence from the manifest and the tasks, all marked clean
+     */
+    SnapshotFile.Contents read(Function<String, Task> parser) throws IOException {
+        long sequence = readManifest();
+
+        storedCounts.clear();
+        isScanned = true;
+        List<Task> tasks = new ArrayList<>();
+        for (long segment : listSegments()) {
+            List<String> lines = readSegment(segment);
+            if (lines == null) {
+                System.out.println(segmentPath(segment) + " is damaged, skipping its tasks");
+                storedCounts.put(segment, -1);
+                continue;
+            }
+
+            for (String line : lines) {
+                int separator = line.indexOf('|');
+                Task task = separator < 0 ? null : parseTask(line, separator, parser);
+                if (task == null) {
+                    continue;
+                }
+                task.markClean();
+                nextId = Math.max(nextId, task.getId() + 1);
+                tasks.add(task);
+            }
+            storedCounts.put(segment, lines.size());
+        }
+
+        return new SnapshotFile.Contents(sequence, tasks);
+    }
+
+    /**
+     * Gets the number of segment files written or removed by the last save.
+     */
+    int getSegmentsWritten() {
+        return segmentsWritten;
+    }
+
+    private Task parseTask(String line, int separator, Function<String, Task> parser) {
+        long id;
+        try {
+            id = Long.parseLong(line.substring(0, separator));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+
+        Task task = id > 0 ? parser.apply(line.substring(separator + 1)) : null;
+        if (task != null) {
+            task.setId(id);
+        }
+        return task;
+    }
+
+    /**
+     * Writes a segment to a temporary file and renames it into place.
+     * Tasks of the live save are marked clean before their text is taken, so a change made meanwhile
+     * keeps them dirty.
+     */
+    private void writeSegment(long segment, List<Task> tasks) throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (Task task : tasks) {
+            if (isLiveSave) {
+                task.markClean();
+            }
+            text.append(task.getId()).append('|');
+            task.appendSaveText(text);
+            text.append('\n');
+        }
+        writeAtomically(segmentPath(segment), withFooter(text, tasks.size()));
+    }
+
+    private List<String> readSegment(long segment) throws IOException {
+        String body = readVerified(segmentPath(segment));
+        if (body == null) {
+            return null;
+        }
+        return body.isEmpty() ? List.of() : List.of(body.split("\n"));
+    }
+
+    /**
+     * Reads a segment or manifest file and checks the checksum in its footer.
+     *
+     * @return Text before the footer, or null if the file is damaged
+     */
+    private static String readVerified(Path file) throws IOException {
+        String text = Files.readString(file, StandardCharsets.UTF_8);
+        int footerStart = text.lastIndexOf(SnapshotFile.FOOTER);
+        if (footerStart < 0 || (footerStart > 0 && text.charAt(footerStart - 1) != '\n')) {
+            return null;
+        }
+
+        String body = text.substring(0, footerStart);
+        String[] footer = text.substring(footerStart).trim().split("\\|");
+        CRC32 checksum = new CRC32();
+        checksum.update(body.getBytes(StandardCharsets.UTF_8));
+
+        try {
+            if (footer.length < 3 || Long.parseLong(footer[1], 16) != checksum.getValue()) {
+                return null;
+            }
+        } catch (NumberFormatException e) {
+            return null;
+        }
+
+        return body;
+    }
+
+    private void writeManifest(long sequence) throws IOException {
+        StringBuilder text = new StringBuilder(HEADER).append(sequence).append('|').append(nextId).append('\n');
+        writeAtomically(path, withFooter(text, 0));
+    }
+
+    /**
+     * Reads the journal sequence and the next free identifier from the manifest.
+     * A damaged manifest is reported and read as sequence 0; identifiers still continue after the loaded tasks.
+     */
+    private long readManifest() throws IOException {
+        String body = readVerified(path);
+        if (body == null) {
+            System.out.println(path + " has an invalid segment manifest");
+            nextId = 1;
+            return 0;
+        }
+
+        String[] header = body.lines().findFirst().orElse("").split("\\|");
+        try {
+            nextId = header.length > 2 ? Long.parseLong(header[2]) : 1;
+            return header.length > 1 ? Long.parseLong(header[1]) : 0;
+        } catch (NumberFormatException e) {
+            System.out.println(path + " has an invalid segment manifest");
+            return 0;
+        }
+    }
+
+    /**
+     * Learns which segment files already exist, so a fresh store rewrites them all and removes stale ones.
+     */
+    private void scanStoredSegments() throws IOException {
+        if (isScanned) {
+            return;
+        }
+
+        for (long segment : listSegments()) {
+            storedCounts.putIfAbsent(segment, -1);
+        }
+        isScanned = true;
+    }
+
+    private List<Long> listSegments() throws IOException {
+        List<Long> segments = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return segments;
+        }
+
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SEGMENT_EXTENSION)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    segments.add(Long.parseLong(name.substring(0, name.length() - SEGMENT_EXTENSION.length())));
+                } catch (NumberFormatException e) {
+                    // Not a segment, e.g. a file left behind by hand
+                }
+            }
+        }
+        segments.sort(null);
+        return segments;
+    }
+
+    private String withFooter(StringBuilder text, int count) {
+        CRC32 checksum = new CRC32();
+        checksum.update(text.toString().getBytes(StandardCharsets.UTF_8));
+        return text.append(SnapshotFile.FOOTER).append(Long.toHexString(checksum.getValue()))
+                .append('|').append(count).append('\n').toString();
+    }
+
+    private void writeAtomically(Path target, String text) throws IOException {
+        Path temp = Path.of(target + SnapshotFile.TEMP_SUFFIX);
+        Files.writeString(temp, text, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE, StandardOpenOption.SYNC);
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private long segmentOf(Task task) {
+        return (task.getId() - 1) / SEGMENT_SIZE;
+    }
+
+    private Path segmentPath(long segment) {
+        return directory.resolve(segment + SEGMENT_EXTENSION);
+    }
+}
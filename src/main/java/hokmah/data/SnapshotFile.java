@@ -0,0 +1,292 @@
+package hokmah.data;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+import hokmah.exception.HokmahException;
+import hokmah.task.Task;
+
+/**
+ * Crash-safe snapshot of the task list on disk.
+ * A snapshot is written to a temporary file, forced to disk and then renamed over the
+ * previous one, which is kept as a backup generation. The last line holds a checksum of
+ * everything before it so a damaged snapshot can be detected when loading.
+ * Snapshots are written in the configured {@link SaveFormat} and read in whichever format they are in.
+ * A damaged current snapshot is moved aside once an older generation was read instead,
+ * so the next save cannot rotate it over the intact backup.
+ */
+class SnapshotFile {
+    static final String HEADER = "#journal|";
+    static final String FOOTER = "#checksum|";
+    static final String TEMP_SUFFIX = ".tmp";
+    static final String BACKUP_SUFFIX = ".bak";
+    static final String DAMAGED_SUFFIX = ".damaged";
+
+    private static final int WRITE_CHUNK_CHARS = 8192;
+
+    private final Path path;
+    private final Path tempPath;
+    private final Path backupPath;
+    private final SaveFormat format;
+    private boolean isParallel = false;
+
+    /**
+     * Contents of a verified snapshot.
+     *
+     * @param sequence Last journal sequence number contained in the snapshot
+     * @param tasks    Tasks in the snapshot
+     */
+    record Contents(long sequence, List<Task> tasks) {
+    }
+
+    /**
+     * Creates a snapshot handle for the given save file.
+     *
+     * @param path   Location of the save file
+     * @param format Layout used when writing
+     */
+    SnapshotFile(String path, SaveFormat format) {
+        this.path = Path.of(path);
+        this.format = format;
+        this.tempPath = Path.of(path + TEMP_SUFFIX);
+        this.backupPath = Path.of(path + BACKUP_SUFFIX);
+    }
+
+    /**
+     * Lets large text snapshots be decoded on several threads.
+     *
+     * @param isParallel true to split large files into chunks decoded in parallel
+     */
+    void setParallel(boolean isParallel) {
+        this.isParallel = isParallel;
+    }
+
+    /**
+     * Atomically replaces the snapshot with the given tasks.
+     *
+     * @param tasks    Tasks to write
+     * @param sequence Last journal sequence number the tasks contain
+     */
+    void write(Iterable<Task> tasks, long sequence) throws IOException {
+        writeTo(tempPath, tasks, sequence);
+        commit(tempPath);
+    }
+
+    /**
+     * Writes a complete snapshot, including its checksum footer, to the given file and forces it to disk.
+     *
+     * @param target   File to write
+     * @param tasks    Tasks to write
+     * @param sequence Last journal sequence number the tasks contain
+     */
+    void writeTo(Path target, Iterable<Task> tasks, long sequence) throws IOException {
+        Files.createDirectories(target.toAbsolutePath().getParent());
+
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            CRC32 checksum = new CRC32();
+            OutputStream out = new CheckedOutputStream(Channels.newOutputStream(channel), checksum);
+
+            if (format == SaveFormat.BINARY) {
+                BinaryTaskFormat.write(new DataOutputStream(new BufferedOutputStream(out)), checksum, tasks, sequence);
+            } else {
+                writeText(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)),
+                        checksum, tasks, sequence);
+            }
+
+            channel.force(true);
+        }
+    }
+
+    private void writeText(BufferedWriter writer, CRC32 checksum, Iterable<Task> tasks,
+                           long sequence) throws IOException {
+        int count = 0;
+        writer.write(HEADER + sequence + "\n");
+
+        // Lines are rendered into one buffer that is written whenever it fills, not one string per task
+        StringBuilder lines = new StringBuilder(WRITE_CHUNK_CHARS + 256);
+        for (Task task : tasks) {
+            if (task != null) {
+                task.appendSaveText(lines);
+                lines.append('\n');
+                count++;
+                if (lines.length() >= WRITE_CHUNK_CHARS) {
+                    writer.append(lines);
+                    lines.setLength(0);
+                }
+            }
+        }
+        writer.append(lines);
+        writer.flush();
+
+        writer.write(FOOTER + Long.toHexString(checksum.getValue()) + "|" + count + "\n");
+        writer.flush();
+    }
+
+    /**
+     * Makes a fully written snapshot the current one, keeping the previous one as a backup.
+     *
+     * @param written Snapshot produced by {@link #writeTo}
+     */
+    void commit(Path written) throws IOException {
+        if (Files.exists(path)) {
+            Files.move(path, backupPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        Files.move(written, path, StandardCopyOption.ATOMIC_MOVE);
+        forceDirectory();
+    }
+
+    /**
+     * Reads the newest intact snapshot, falling back to older generations when the current one is damaged.
+     * Files written before checksums were introduced are accepted as they are.
+     * Files are read whole into the heap and decoded in place.
+     *
+     * @return Contents of the snapshot, empty if no snapshot exists
+     * @throws HokmahException If a snapshot is too large to read
+     */
+    Contents read() throws IOException, HokmahException {
+        for (Path candidate : new Path[]{path, tempPath, backupPath}) {
+            if (!Files.exists(candidate)) {
+                continue;
+            }
+
+            ByteBuffer bytes = BufferTaskLoader.read(candidate);
+            Contents contents = BinaryTaskFormat.isBinary(bytes)
+                    ? BinaryTaskFormat.read(bytes)
+                    : readVerified(bytes);
+            if (contents != null) {
+                if (candidate != path && Files.exists(path)) {
+                    setAsideDamaged();
+                }
+                return contents;
+            }
+
+            System.out.println(candidate + " is damaged, trying an older save");
+        }
+
+        if (Files.exists(path)) {
+            ByteBuffer bytes = BufferTaskLoader.read(path);
+            if (!BinaryTaskFormat.isBinary(bytes)) {
+                // Nothing verifies, so keep whatever can still be read
+                return readLenient(bytes);
+            }
+        }
+
+        return new Contents(0, List.of());
+    }
+
+    /**
+     * Moves a current snapshot that failed verification out of the way of the backup rotation.
+     * It is kept next to the save file rather than deleted, in case it can still be repaired by hand.
+     */
+    private void setAsideDamaged() {
+        try {
+            Files.move(path, Path.of(path + DAMAGED_SUFFIX), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            System.out.println("Could not move the damaged " + path + " aside");
+        }
+    }
+
+    /**
+     * Parses a snapshot and verifies the checksum and task count of its footer.
+     *
+     * @return Contents of the snapshot, or null if it is damaged
+     */
+    private Contents readVerified(ByteBuffer bytes) {
+        if (!hasHeader(bytes)) {
+            return readLenient(bytes);
+        }
+
+        int footerStart = findFooter(bytes);
+        if (footerStart < 0) {
+            return null;
+        }
+
+        byte[] footerBytes = new byte[bytes.limit() - footerStart];
+        bytes.get(footerStart, footerBytes);
+        String[] footer = new String(footerBytes, StandardCharsets.UTF_8).trim().split("\\|");
+
+        CRC32 checksum = new CRC32();
+        checksum.update(bytes.duplicate().position(0).limit(footerStart));
+
+        int count;
+        try {
+            if (footer.length < 3 || Long.parseLong(footer[1], 16) != checksum.getValue()) {
+                return null;
+            }
+            count = Integer.parseInt(footer[2]);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+
+        Contents contents = parse(bytes, StandardCharsets.UTF_8, footerStart);
+        return contents.tasks().size() == count ? contents : null;
+    }
+
+    private Contents readLenient(ByteBuffer bytes) {
+        Charset charset = hasHeader(bytes) ? StandardCharsets.UTF_8 : Charset.defaultCharset();
+        return parse(bytes, charset, bytes.limit());
+    }
+
+    private Contents parse(ByteBuffer bytes, Charset charset, int end) {
+        BufferTaskLoader loader = new BufferTaskLoader(bytes, charset);
+        return isParallel ? loader.parseParallel(0, end) : loader.parse(0, end);
+    }
+
+    /**
+     * Checks for the header line, which files written before checksums were introduced do not have.
+     */
+    private boolean hasHeader(ByteBuffer bytes) {
+        return bytes.limit() > 0 && bytes.get(0) == '#';
+    }
+
+    private int findFooter(ByteBuffer bytes) {
+        int end = bytes.limit() - 1;
+        if (end >= 0 && bytes.get(end) == '\n') {
+            end--;
+        }
+
+        int lineStart = end;
+        while (lineStart > 0 && bytes.get(lineStart - 1) != '\n') {
+            lineStart--;
+        }
+
+        byte[] footer = FOOTER.getBytes(StandardCharsets.UTF_8);
+        if (lineStart < 0 || end - lineStart + 1 < footer.length) {
+            return -1;
+        }
+
+        for (int i = 0; i < footer.length; i++) {
+            if (bytes.get(lineStart + i) != footer[i]) {
+                return -1;
+            }
+        }
+
+        return lineStart;
+    }
+
+    private void forceDirectory() {
+        Path directory = path.toAbsolutePath().getParent();
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Not every platform allows directories to be opened, the rename itself is still atomic
+        }
+    }
+}
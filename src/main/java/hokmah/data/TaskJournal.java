@@ -0,0 +1,367 @@
+package hokmah.data;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.Function;
+
+import hokmah.task.Task;
+
+/**
+ * Append-only log of task mutations kept next to the snapshot file.
+ * Each record is a single line of the form {@code sequence|operation|payload}.
+ * Marks, unmarks and deletes carry a set of task indexes written as ranges, e.g. {@code 4-899,902},
+ * so a bulk operation is one record; deleted indexes refer to positions before the deletion.
+ * Inserts put a task back at a position and carry {@code index|saveText}.
+ *
+ * <p>Every journal file starts with a {@code #base|sequence} line naming the sequence its first record
+ * follows. Records are positions in a list, so a file is only replayed onto a snapshot that already
+ * contains that sequence; otherwise, e.g. after falling back to an older generation of the save,
+ * the file is moved aside instead of changing the wrong tasks.
+ */
+class TaskJournal {
+    static final String JOURNAL_SUFFIX = ".journal";
+    static final String COMPACTING_SUFFIX = ".journal.compacting";
+    static final String STALE_SUFFIX = ".stale";
+    static final String BASE_HEADER = "#base|";
+
+    static final char ADD = 'A';
+    static final char MARK = 'M';
+    static final char UNMARK = 'U';
+    static final char DELETE = 'D';
+    static final char INSERT = 'I';
+
+    private final Path journalPath;
+    private final Path compactingPath;
+    private FileChannel channel;
+    private BufferedWriter writer;
+    private long lastSequence = 0;
+    private int recordCount = 0;
+    private final List<String> bufferedRecords = new ArrayList<>();
+
+    /**
+     * Outcome of replaying one journal file.
+     *
+     * @param records  Number of records found in the file
+     * @param sequence Last sequence number the tasks contain afterwards
+     */
+    private record Replayed(int records, long sequence) {
+    }
+
+    /**
+     * Creates a journal for the given snapshot file.
+     *
+     * @param snapshotPath Location of the snapshot the journal belongs to
+     */
+    TaskJournal(String snapshotPath) {
+        this.journalPath = Path.of(snapshotPath + JOURNAL_SUFFIX);
+        this.compactingPath = Path.of(snapshotPath + COMPACTING_SUFFIX);
+    }
+
+    long getLastSequence() {
+        return lastSequence;
+    }
+
+    int getRecordCount() {
+        return recordCount;
+    }
+
+    Path getCompactingPath() {
+        return compactingPath;
+    }
+
+    boolean hasPendingCompaction() {
+        return Files.exists(compactingPath);
+    }
+
+    /**
+     * Appends a single record to the active journal file.
+     *
+     * @param operation One of the operation codes of this class
+     * @param payload   Save text for additions, task indexes otherwise
+     */
+    void append(char operation, String payload) throws IOException {
+        openWriter(lastSequence);
+
+        lastSequence++;
+        writer.write(lastSequence + "|" + operation + "|" + payload + "\n");
+        writer.flush();
+        recordCount++;
+    }
+
+    /**
+     * Assigns the next sequence number to a record and holds it in memory until {@link #writeBuffered}.
+     *
+     * @param operation One of the operation codes of this class
+     * @param payload   Save text for additions, task indexes otherwise
+     */
+    void buffer(char operation, String payload) {
+        lastSequence++;
+        bufferedRecords.add(lastSequence + "|" + operation + "|" + payload + "\n");
+    }
+
+    boolean hasBuffered() {
+        return !bufferedRecords.isEmpty();
+    }
+
+    /**
+     * Writes all buffered records with a single flush and forces them to disk.
+     */
+    void writeBuffered() throws IOException {
+        if (bufferedRecords.isEmpty()) {
+            return;
+        }
+
+        openWriter(lastSequence - bufferedRecords.size());
+        for (String record : bufferedRecords) {
+            writer.write(record);
+        }
+        writer.flush();
+        channel.force(false);
+
+        recordCount += bufferedRecords.size();
+        bufferedRecords.clear();
+    }
+
+    /**
+     * Moves the active journal aside so it can be folded into the snapshot,
+     * and starts a fresh active journal.
+     *
+     * @return true if there was something to compact
+     */
+    boolean rotate() throws IOException {
+        closeWriter();
+        if (!Files.exists(journalPath) || Files.exists(compactingPath)) {
+            return false;
+        }
+
+        Files.move(journalPath, compactingPath, StandardCopyOption.ATOMIC_MOVE);
+        recordCount = 0;
+        return true;
+    }
+
+    /**
+     * Discards all journal files, used once a full snapshot covers every record.
+     */
+    void reset() throws IOException {
+        bufferedRecords.clear();
+        closeWriter();
+        Files.deleteIfExists(compactingPath);
+        Files.deleteIfExists(journalPath);
+        recordCount = 0;
+    }
+
+    /**
+     * Applies every record newer than the snapshot to the given tasks,
+     * first from a pending compaction file and then from the active journal.
+     *
+     * @param tasks            Tasks loaded from the snapshot
+     * @param snapshotSequence Last sequence number already contained in the snapshot
+     * @param parser           Converts save text into a task
+     */
+    void replay(ArrayList<Task> tasks, long snapshotSequence, Function<String, Task> parser) throws IOException {
+        closeWriter();
+        Replayed compacting = replayFile(compactingPath, tasks, snapshotSequence, parser);
+        Replayed active = replayFile(journalPath, tasks, compacting.sequence(), parser);
+        lastSequence = Math.max(lastSequence, active.sequence());
+        recordCount = active.records();
+    }
+
+    /**
+     * Applies only the records of the rotated journal, leaving the active journal untouched.
+     *
+     * @return Last sequence number found, or the snapshot sequence if there were no newer records
+     */
+    long replayCompacting(ArrayList<Task> tasks, long snapshotSequence,
+                          Function<String, Task> parser) throws IOException {
+        lastSequence = Math.max(lastSequence, replayFile(compactingPath, tasks, snapshotSequence, parser).sequence());
+        return lastSequence;
+    }
+
+    /**
+     * Applies the records of a single journal file, or moves the file aside if it does not continue
+     * from the sequence the tasks are at.
+     *
+     * @param sequence Last sequence number the tasks already contain
+     * @return Records found and the sequence the tasks are at afterwards
+     */
+    private Replayed replayFile(Path path, ArrayList<Task> tasks, long sequence,
+                                Function<String, Task> parser) throws IOException {
+        if (!Files.exists(path)) {
+            return new Replayed(0, sequence);
+        }
+
+        int records = 0;
+        long reached = sequence;
+        boolean isStale = false;
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while (!isStale && (line = reader.readLine()) != null) {
+                if (line.startsWith(BASE_HEADER)) {
+                    isStale = isAfter(line.substring(BASE_HEADER.length()), sequence);
+                    continue;
+                }
+
+                String[] record = line.split("\\|", 3);
+                if (record.length < 3) {
+                    // A torn final write leaves a partial record behind
+                    continue;
+                }
+
+                try {
+                    long recordSequence = Long.parseLong(record[0]);
+                    records++;
+                    if (recordSequence > reached) {
+                        apply(tasks, record[1].charAt(0), record[2], parser);
+                        reached = recordSequence;
+                    }
+                } catch (NumberFormatException | StringIndexOutOfBoundsException e) {
+                    System.out.println("Skipping invalid journal record");
+                }
+            }
+        }
+
+        if (isStale) {
+            Path stalePath = Path.of(path + STALE_SUFFIX);
+            Files.move(path, stalePath, StandardCopyOption.REPLACE_EXISTING);
+            System.out.println(path + " was written after a newer save than the one loaded, "
+                    + "so its changes were not applied. It was moved to " + stalePath);
+            return new Replayed(0, sequence);
+        }
+        return new Replayed(records, reached);
+    }
+
+    /**
+     * Checks whether the base sequence of a journal file lies beyond the sequence the tasks are at.
+     */
+    private static boolean isAfter(String baseSequence, long sequence) {
+        try {
+            return Long.parseLong(baseSequence.trim()) > sequence;
+        } catch (NumberFormatException e) {
+            System.out.println("Skipping invalid journal header");
+            return false;
+        }
+    }
+
+    private void apply(ArrayList<Task> tasks, char operation, String payload, Function<String, Task> parser) {
+        if (operation == ADD) {
+            Task task = parser.apply(payload);
+            if (task != null) {
+                tasks.add(task);
+            }
+            return;
+        }
+
+        if (operation == INSERT) {
+            String[] indexAndSaveText = payload.split("\\|", 2);
+            int index = Integer.parseInt(indexAndSaveText[0]);
+            Task task = indexAndSaveText.length < 2 ? null : parser.apply(indexAndSaveText[1]);
+            if (task != null && index >= 0 && index <= tasks.size()) {
+                tasks.add(index, task);
+            }
+            return;
+        }
+
+        BitSet indexes = decodeIndexes(payload);
+        if (indexes.length() > tasks.size()) {
+            return;
+        }
+
+        switch (operation) {
+        case MARK -> indexes.stream().forEach(index -> tasks.get(index).markDone());
+        case UNMARK -> indexes.stream().forEach(index -> tasks.get(index).unmarkDone());
+        case DELETE -> {
+            // Shift the kept tasks down in one pass instead of removing them one at a time
+            int keptCount = 0;
+            for (int i = 0; i < tasks.size(); i++) {
+                if (!indexes.get(i)) {
+                    tasks.set(keptCount++, tasks.get(i));
+                }
+            }
+            tasks.subList(keptCount, tasks.size()).clear();
+        }
+        default -> System.out.println("Invalid journal operation");
+        }
+    }
+
+    /**
+     * Writes a set of indexes as comma-separated ranges, e.g. {@code 0-3,7}.
+     *
+     * @param indexes Zero-based task indexes
+     * @return Payload of a journal record
+     */
+    static String encodeIndexes(BitSet indexes) {
+        StringBuilder payload = new StringBuilder();
+        int start = indexes.nextSetBit(0);
+        while (start >= 0) {
+            int last = indexes.nextClearBit(start) - 1;
+            if (payload.length() > 0) {
+                payload.append(',');
+            }
+            payload.append(start);
+            if (last > start) {
+                payload.append('-').append(last);
+            }
+            start = indexes.nextSetBit(last + 1);
+        }
+        return payload.toString();
+    }
+
+    /**
+     * Reads a set of indexes written by {@link #encodeIndexes}. A single index is a valid payload too.
+     *
+     * @param payload Payload of a journal record
+     * @return Zero-based task indexes
+     * @throws NumberFormatException If the payload is not a list of indexes and ranges
+     */
+    static BitSet decodeIndexes(String payload) {
+        BitSet indexes = new BitSet();
+        for (String range : payload.split(",")) {
+            int dash = range.indexOf('-');
+            int first = Integer.parseInt(dash < 0 ? range : range.substring(0, dash));
+            int last = dash < 0 ? first : Integer.parseInt(range.substring(dash + 1));
+            if (first < 0 || last < first) {
+                throw new NumberFormatException("Invalid index range " + range);
+            }
+            indexes.set(first, last + 1);
+        }
+        return indexes;
+    }
+
+    /**
+     * Opens the active journal for appending, starting a new file with its base sequence.
+     *
+     * @param baseSequence Sequence number the first record written follows
+     */
+    private void openWriter(long baseSequence) throws IOException {
+        if (writer != null) {
+            return;
+        }
+
+        Files.createDirectories(journalPath.toAbsolutePath().getParent());
+        channel = FileChannel.open(journalPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8));
+        if (channel.size() == 0) {
+            writer.write(BASE_HEADER + baseSequence + "\n");
+        }
+    }
+
+    private void closeWriter() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+            channel = null;
+        }
+    }
+}
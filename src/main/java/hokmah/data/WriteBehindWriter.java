@@ -0,0 +1,187 @@
+package hokmah.data;
+
+import java.io.IOException;
+
+/**
+ * Background thread that flushes pending changes on behalf of the commands that made them.
+ * Each change takes a ticket; a flush covers every ticket handed out before it started,
+ * so bursts of commands are written together.
+ */
+class WriteBehindWriter {
+    /**
+     * Writes whatever changes are pending when it is called.
+     */
+    interface Flusher {
+        void flush() throws IOException;
+    }
+
+    private static final long RETRY_DELAY_MILLIS = 1000;
+
+    private final Flusher flusher;
+    private final DurabilityPolicy policy;
+    private final long intervalMillis;
+    private final Thread thread;
+
+    private long requested = 0;
+    private long flushed = 0;
+    private IOException failure;
+    private boolean isClosing = false;
+
+    /**
+     * Starts a writer thread.
+     *
+     * @param flusher        Writes pending changes
+     * @param policy         When pending changes are flushed
+     * @param intervalMillis How long changes are collected before a flush under {@link DurabilityPolicy#INTERVAL}
+     */
+    WriteBehindWriter(Flusher flusher, DurabilityPolicy policy, long intervalMillis) {
+        assert policy != DurabilityPolicy.IMMEDIATE : "Immediate saves do not use a writer";
+
+        this.flusher = flusher;
+        this.policy = policy;
+        this.intervalMillis = intervalMillis;
+        this.thread = new Thread(this::run, "hokmah-writer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Records that a change is pending. The change must already be visible to the flusher.
+     *
+     * @return Ticket to wait for with {@link #awaitFlushed}
+     */
+    synchronized long markDirty() {
+        requested++;
+        notifyAll();
+        return requested;
+    }
+
+    /**
+     * Treats every pending change as written, used when a full save already covers them.
+     */
+    synchronized void markAllFlushed() {
+        flushed = requested;
+        notifyAll();
+    }
+
+    /**
+     * Blocks until the change with the given ticket has been written.
+     *
+     * @param ticket Ticket returned by {@link #markDirty}
+     * @throws IOException If the flush covering the change failed
+     */
+    synchronized void awaitFlushed(long ticket) throws IOException {
+        boolean isInterrupted = false;
+        while (flushed < ticket && failure == null) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                isInterrupted = true;
+            }
+        }
+
+        if (isInterrupted) {
+            Thread.currentThread().interrupt();
+        }
+        throwFailure();
+    }
+
+    /**
+     * Reports a failed background flush once, so a later command can tell the user about it.
+     *
+     * @throws IOException The failure of the last flush, if it failed
+     */
+    synchronized void throwFailure() throws IOException {
+        if (failure != null) {
+            IOException lastFailure = failure;
+            failure = null;
+            throw lastFailure;
+        }
+    }
+
+    /**
+     * Flushes everything that is pending and stops the writer thread.
+     *
+     * @throws IOException If the final flush failed
+     */
+    void close() throws IOException {
+        synchronized (this) {
+            isClosing = true;
+            notifyAll();
+        }
+
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        throwFailure();
+    }
+
+    private void run() {
+        while (true) {
+            long target;
+            synchronized (this) {
+                try {
+                    waitForWork();
+                } catch (InterruptedException e) {
+                    isClosing = true;
+                }
+
+                if (flushed >= requested && isClosing) {
+                    return;
+                }
+                target = requested;
+            }
+
+            try {
+                flusher.flush();
+                synchronized (this) {
+                    flushed = Math.max(flushed, target);
+                    notifyAll();
+                }
+            } catch (IOException e) {
+                synchronized (this) {
+                    failure = e;
+                    notifyAll();
+                    if (isClosing) {
+                        return;
+                    }
+                }
+                sleep(RETRY_DELAY_MILLIS);
+            }
+        }
+    }
+
+    /**
+     * Waits until there is something to flush and the policy allows flushing it.
+     */
+    private void waitForWork() throws InterruptedException {
+        while (flushed >= requested && !isClosing) {
+            wait();
+        }
+
+        if (policy == DurabilityPolicy.ON_EXIT) {
+            while (!isClosing) {
+                wait();
+            }
+        } else if (policy == DurabilityPolicy.INTERVAL) {
+            // Give the rest of a burst of commands time to arrive
+            long deadline = System.currentTimeMillis() + intervalMillis;
+            long remaining = intervalMillis;
+            while (!isClosing && remaining > 0) {
+                wait(remaining);
+                remaining = deadline - System.currentTimeMillis();
+            }
+        }
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package hokmah.exception;
 
 import static hokmah.Hokmah.DATETIME_INPUT_FORMAT;
+import static hokmah.Hokmah.DATE_INPUT_FORMAT;
 
 /**
  * Custom exception class for task management errors.
@@ -13,15 +14,30 @@ public class HokmahException extends Exception {
      */
     public enum ExceptionType {
         NO_SAVE_FILE,
+        SAVE_FAILED,
+        SAVE_FILE_TOO_LARGE,
         NO_NAME,
         NO_INDEX,
         INVALID_DEADLINE_FORMAT,
         EVENT_NO_TIME_START,
         EVENT_NO_TIME_END,
         EVENT_END_BEFORE_START,
+        INVALID_RECURRING_FORMAT,
         TASK_NOT_FOUND,
         NO_UPCOMING_ON_DATE,
-        SEARCH_FAILED
+        INVALID_DUE_RANGE,
+        RANGE_TOO_LARGE,
+        INVALID_NEXT_DUE_COUNT,
+        INVALID_OVERLAP_RANGE,
+        NO_HAPPENING_AT_TIME,
+        INVALID_AGENDA_DATE,
+        INVALID_BATCH_FILE,
+        NOTHING_TO_UNDO,
+        NOTHING_TO_REDO,
+        UNDO_CONFLICT,
+        BATCH_NOT_ALLOWED,
+        SEARCH_FAILED,
+        UNSUPPORTED_COMMAND
 
     }
 
@@ -35,11 +51,21 @@ public class HokmahException extends Exception {
         String message = "";
 
 
-        if (type == ExceptionType.NO_SAVE_FILE) {
+        if (type == ExceptionType.SAVE_FILE_TOO_LARGE) {
+            message = """
+                    Your save file is over 2 GiB. I'm not reading all of that.
+                    Split your tasks up or clean them out first.""";
+
+        } else if (type == ExceptionType.NO_SAVE_FILE) {
             message = """
                     Seems like this is our first time meeting.
                     """;
 
+        } else if (type == ExceptionType.SAVE_FAILED) {
+            message = """
+                    I couldn't save your tasks. Is something wrong with your disk?
+                    Your last change only exists until you close me.
+                    """;
         } else if (type == ExceptionType.NO_NAME) {
             message = """
                     Just what are you going to do?
@@ -75,6 +101,12 @@ public class HokmahException extends Exception {
                     Check your dates again!
                     The format is: event [name] /from [{input_datetime_format}] /to [{input_datetime_format}]
                     """;
+        } else if (type == ExceptionType.INVALID_RECURRING_FORMAT) {
+            message = """
+                    How often is it, and from when? Put it properly.
+                    The format is: recur [name] /from [{input_datetime_format}] /every [daily|weekly|monthly]
+                    Add /until [{input_datetime_format}] at the end if it stops at some point.
+                    """;
         } else if (type == ExceptionType.TASK_NOT_FOUND) {
             message = """
                     The task you are trying to perform an action on cannot be found.
@@ -85,11 +117,69 @@ public class HokmahException extends Exception {
                     Can you put when want to see the upcoming tasks properly?
                     Format is: upcomingOn [{input_datetime_format}]""";
 
+        } else if (type == ExceptionType.INVALID_DUE_RANGE) {
+            message = """
+                    Which range do you want? Put it properly, with the start before the end.
+                    Format is: dueBetween [{input_datetime_format}] /to [{input_datetime_format}]""";
+
+        } else if (type == ExceptionType.RANGE_TOO_LARGE) {
+            message = """
+                    Your recurring tasks come up way too often in that range. I'm not listing all of them.
+                    Pick a shorter range.""";
+
+        } else if (type == ExceptionType.INVALID_NEXT_DUE_COUNT) {
+            message = """
+                    How many tasks do you want to see? Give me a proper number.
+                    Format is: nextDue [count]""";
+
+        } else if (type == ExceptionType.INVALID_OVERLAP_RANGE) {
+            message = """
+                    Which time window do you mean? The start has to be before the end, obviously.
+                    Format is: overlaps [{input_datetime_format}] /to [{input_datetime_format}]""";
+
+        } else if (type == ExceptionType.NO_HAPPENING_AT_TIME) {
+            message = """
+                    At what time? Put it properly.
+                    Format is: happeningAt [{input_datetime_format}]""";
+
+        } else if (type == ExceptionType.INVALID_AGENDA_DATE) {
+            message = """
+                    Which day is that supposed to be?
+                    Format is: agenda, agenda week or agenda [{input_date_format}]""";
+
+        } else if (type == ExceptionType.INVALID_BATCH_FILE) {
+            message = """
+                    I can't read that file. Does it even exist?
+                    Format is: run [file]""";
+
+        } else if (type == ExceptionType.NOTHING_TO_UNDO) {
+            message = """
+                    There's nothing to undo. Or I've forgotten it already, it was that long ago.""";
+
+        } else if (type == ExceptionType.NOTHING_TO_REDO) {
+            message = """
+                    There's nothing to redo. Make up your mind first.""";
+
+        } else if (type == ExceptionType.UNDO_CONFLICT) {
+            message = """
+                    Someone else changed the list since, so I can't undo or redo that safely anymore.
+                    I've forgotten your history. Fix it yourself.""";
+
+        } else if (type == ExceptionType.BATCH_NOT_ALLOWED) {
+            message = """
+                    Nice try. I'm not running files for you over the network.""";
+
         } else if (type == ExceptionType.SEARCH_FAILED) {
             message = """
                     Can you specify a search term? You're bad at following commands.
                     The format is: find [keyword]""";
 
+        } else if (type == ExceptionType.UNSUPPORTED_COMMAND) {
+            message = """
+                    Ooookay? Just what are you trying to do?
+                    Can you ask something else?
+                    If you don't know what to ask you can use the 'help' command""";
+
         } else {
             message = """
                     Something went wrong..
@@ -99,6 +189,7 @@ public class HokmahException extends Exception {
         }
 
         message = message.replace("{input_datetime_format}", DATETIME_INPUT_FORMAT);
+        message = message.replace("{input_date_format}", DATE_INPUT_FORMAT);
 
         throw new HokmahException(message);
 
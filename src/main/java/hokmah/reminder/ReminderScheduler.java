@@ -0,0 +1,196 @@
+package hokmah.reminder;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import hokmah.task.Occurrence;
+import hokmah.task.RecurringTask;
+import hokmah.task.Task;
+import hokmah.task.TaskListListener;
+
+/**
+ * Reminds about deadlines and events a fixed lead time before they are due or start.
+ * Reminders wait in a {@link TimingWheel} driven by a single background thread, so there is no
+ * thread or timer per reminder. It listens to a task list to keep reminders in sync:
+ * new tasks are scheduled, and removed or completed tasks are cancelled.
+ * A recurring task has a reminder for its next occurrence only. When it fires, the occurrence after it
+ * is scheduled, so a series without an end never holds more than one reminder.
+ */
+public class ReminderScheduler implements TaskListListener {
+    public static final Duration DEFAULT_LEAD_TIME = Duration.ofMinutes(30);
+
+    private static final long TICK_MILLIS = 1000;
+    private static final int SLOTS_PER_LEVEL = 64;
+    private static final int LEVEL_COUNT = 4;
+
+    private final Clock clock;
+    private final Duration leadTime;
+    private final TimingWheel<Task> wheel;
+    private final Map<Long, TimingWheel.Timeout<Task>> timeoutsByTaskId = new HashMap<>();
+    private final List<Consumer<Task>> listeners = new CopyOnWriteArrayList<>();
+    private Thread thread;
+
+    /**
+     * Creates a scheduler. Nothing fires until {@link #start} is called.
+     *
+     * @param clock    Source of the current time and time zone
+     * @param leadTime How long before a task's time its reminder fires
+     */
+    public ReminderScheduler(Clock clock, Duration leadTime) {
+        this.clock = clock;
+        this.leadTime = leadTime;
+        this.wheel = new TimingWheel<>(TICK_MILLIS, SLOTS_PER_LEVEL, LEVEL_COUNT, clock.millis());
+    }
+
+    /**
+     * Registers a listener that receives each task when its reminder fires.
+     * Listeners are called on the scheduler's thread.
+     *
+     * @param listener Listener to notify
+     */
+    public void addListener(Consumer<Task> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Starts the background thread that fires reminders.
+     */
+    public synchronized void start() {
+        if (thread != null) {
+            return;
+        }
+
+        thread = new Thread(this::run, "hokmah-reminders");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops the background thread. Pending reminders are kept.
+     */
+    public synchronized void stop() {
+        if (thread != null) {
+            thread.interrupt();
+            thread = null;
+        }
+    }
+
+    @Override
+    public synchronized void taskAdded(Task task) {
+        schedule(task);
+    }
+
+    @Override
+    public synchronized void taskRemoved(Task task) {
+        cancel(task);
+    }
+
+    @Override
+    public synchronized void taskChanged(Task task) {
+        cancel(task);
+        schedule(task);
+    }
+
+    /**
+     * Gets the number of reminders that have not fired yet.
+     */
+    public synchronized int getPendingCount() {
+        return wheel.size();
+    }
+
+    /**
+     * Fires every reminder that is due at the given time. Listeners get the occurrence of a recurring task,
+     * so they see when it is due.
+     *
+     * @param nowMillis Current time
+     */
+    void fireDue(long nowMillis) {
+        List<Task> due;
+        synchronized (this) {
+            due = wheel.advance(nowMillis);
+            for (Task task : due) {
+                timeoutsByTaskId.remove(task.getId());
+                if (task instanceof Occurrence occurrence) {
+                    // Skip any occurrences missed while the scheduler was behind, e.g. asleep
+                    LocalDateTime now = LocalDateTime.ofInstant(Instant.ofEpochMilli(nowMillis), clock.getZone());
+                    LocalDateTime fired = occurrence.getTimeEnd();
+                    scheduleAfter(occurrence.getSeries(), fired.isAfter(now) ? fired : now, nowMillis);
+                }
+            }
+        }
+
+        for (Task task : due) {
+            for (Consumer<Task> listener : listeners) {
+                listener.accept(task);
+            }
+        }
+    }
+
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Thread.sleep(TICK_MILLIS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            fireDue(clock.millis());
+        }
+    }
+
+    /**
+     * Schedules a reminder for a task that is not done and whose time has not passed yet,
+     * or for the next occurrence of a recurring task.
+     */
+    private void schedule(Task task) {
+        if (task.isDone()) {
+            return;
+        }
+
+        long nowMillis = clock.millis();
+        if (task instanceof RecurringTask series) {
+            scheduleAfter(series, LocalDateTime.now(clock), nowMillis);
+            return;
+        }
+
+        LocalDateTime time = task.getTimeStart() != null ? task.getTimeStart() : task.getTimeEnd();
+        if (time != null) {
+            scheduleAt(task, time, nowMillis);
+        }
+    }
+
+    /**
+     * Schedules a reminder for the first occurrence of a series due after the given time, if there is one.
+     */
+    private void scheduleAfter(RecurringTask series, LocalDateTime after, long nowMillis) {
+        // The first occurrence may be due exactly at the given time, so look at one more
+        for (Occurrence occurrence : series.occurrencesFrom(after, 2)) {
+            if (occurrence.getTimeEnd().isAfter(after)) {
+                scheduleAt(occurrence, occurrence.getTimeEnd(), nowMillis);
+                return;
+            }
+        }
+    }
+
+    private void scheduleAt(Task task, LocalDateTime time, long nowMillis) {
+        long timeMillis = time.atZone(clock.getZone()).toInstant().toEpochMilli();
+        if (timeMillis <= nowMillis) {
+            return;
+        }
+
+        timeoutsByTaskId.put(task.getId(), wheel.schedule(task, timeMillis - leadTime.toMillis()));
+    }
+
+    private void cancel(Task task) {
+        TimingWheel.Timeout<Task> timeout = timeoutsByTaskId.remove(task.getId());
+        if (timeout != null) {
+            wheel.cancel(timeout);
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package hokmah.reminder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel holding items until their deadline.
+ * Each level is a ring of slots, and a slot on level {@code l} covers {@code slotsPerLevel^l} ticks.
+ * Items far in the future sit in a coarse slot and are moved down a level each time the wheel reaches
+ * that slot, so scheduling and cancelling are O(1) and advancing costs O(1) per tick plus the items moved.
+ * Deadlines beyond the top level are parked in its slots and re-parked until they come into range.
+ * Not thread-safe; callers synchronize.
+ *
+ * @param <T> Type of item scheduled
+ */
+class TimingWheel<T> {
+    /**
+     * Scheduled item. It is linked into the slot it currently waits in, so it can unlink itself.
+     *
+     * @param <T> Type of item scheduled
+     */
+    static class Timeout<T> {
+        private final T item;
+        private final long deadlineTick;
+        private Timeout<T> previous;
+        private Timeout<T> next;
+
+        private Timeout(T item, long deadlineTick) {
+            this.item = item;
+            this.deadlineTick = deadlineTick;
+        }
+
+        T getItem() {
+            return item;
+        }
+
+        private void unlink() {
+            if (previous != null) {
+                previous.next = next;
+                next.previous = previous;
+                previous = null;
+                next = null;
+            }
+        }
+
+        private boolean isScheduled() {
+            return previous != null;
+        }
+    }
+
+    /**
+     * Circular list of timeouts headed by a sentinel.
+     */
+    private static class Slot<T> extends Timeout<T> {
+        Slot() {
+            super(null, 0);
+            clear();
+        }
+
+        void append(Timeout<T> timeout) {
+            Timeout<T> last = super.previous;
+            link(last, timeout);
+            link(timeout, this);
+        }
+
+        /**
+         * Unlinks every timeout in the slot and returns them in the order they were added.
+         */
+        List<Timeout<T>> drain() {
+            List<Timeout<T>> timeouts = new ArrayList<>();
+            for (Timeout<T> timeout = super.next; timeout != this; ) {
+                Timeout<T> following = timeout.next;
+                timeouts.add(timeout);
+                timeout.unlink();
+                timeout = following;
+            }
+            clear();
+            return timeouts;
+        }
+
+        private void clear() {
+            link(this, this);
+        }
+    }
+
+    private final long tickMillis;
+    private final long startMillis;
+    private final int bits;
+    private final int mask;
+    private final List<List<Slot<T>>> levels = new ArrayList<>();
+    private final Slot<T> overdue = new Slot<>();
+    private long currentTick = 0;
+    private int size = 0;
+
+    /**
+     * Creates an empty wheel.
+     *
+     * @param tickMillis    Length of one tick, the resolution of deadlines
+     * @param slotsPerLevel Number of slots on each level, a power of two
+     * @param levelCount    Number of levels
+     * @param startMillis   Time of tick 0
+     */
+    TimingWheel(long tickMillis, int slotsPerLevel, int levelCount, long startMillis) {
+        assert Integer.bitCount(slotsPerLevel) == 1 : "Slots per level must be a power of two";
+        assert levelCount > 0 : "The wheel needs at least one level";
+
+        this.tickMillis = tickMillis;
+        this.startMillis = startMillis;
+        this.bits = Integer.numberOfTrailingZeros(slotsPerLevel);
+        this.mask = slotsPerLevel - 1;
+        for (int level = 0; level < levelCount; level++) {
+            List<Slot<T>> slots = new ArrayList<>(slotsPerLevel);
+            for (int i = 0; i < slotsPerLevel; i++) {
+                slots.add(new Slot<>());
+            }
+            levels.add(slots);
+        }
+    }
+
+    /**
+     * Schedules an item. Deadlines that already passed expire on the next advance.
+     *
+     * @param item           Item to hand back when it expires
+     * @param deadlineMillis Time the item expires at
+     * @return Handle to cancel the item with
+     */
+    Timeout<T> schedule(T item, long deadlineMillis) {
+        long deadlineTick = Math.max(0, Math.floorDiv(deadlineMillis - startMillis + tickMillis - 1, tickMillis));
+        Timeout<T> timeout = new Timeout<>(item, deadlineTick);
+        place(timeout);
+        size++;
+        return timeout;
+    }
+
+    /**
+     * Cancels a scheduled item.
+     *
+     * @param timeout Handle returned by {@link #schedule}
+     */
+    void cancel(Timeout<T> timeout) {
+        if (timeout.isScheduled()) {
+            timeout.unlink();
+            size--;
+        }
+    }
+
+    /**
+     * Moves the wheel forward to the given time.
+     *
+     * @param nowMillis Current time
+     * @return Items whose deadline has been reached, in order of deadline
+     */
+    List<T> advance(long nowMillis) {
+        List<T> expired = new ArrayList<>();
+        collect(overdue, expired);
+
+        long targetTick = Math.floorDiv(nowMillis - startMillis, tickMillis);
+        while (currentTick < targetTick) {
+            currentTick++;
+            cascade();
+            collect(levels.get(0).get((int) (currentTick & mask)), expired);
+            collect(overdue, expired);
+        }
+        return expired;
+    }
+
+    /**
+     * Gets the number of items waiting in the wheel.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Moves the items of every coarse slot the wheel just reached down to finer levels.
+     * Higher levels go first, so items can fall through several levels in one tick.
+     */
+    private void cascade() {
+        for (int level = levels.size() - 1; level > 0; level--) {
+            if ((currentTick & ((1L << (bits * level)) - 1)) != 0) {
+                continue;
+            }
+
+            Slot<T> slot = levels.get(level).get((int) ((currentTick >>> (bits * level)) & mask));
+            for (Timeout<T> timeout : slot.drain()) {
+                place(timeout);
+            }
+        }
+    }
+
+    private void place(Timeout<T> timeout) {
+        long delta = timeout.deadlineTick - currentTick;
+        if (delta <= 0) {
+            overdue.append(timeout);
+            return;
+        }
+
+        int level = 0;
+        while (level < levels.size() - 1 && delta >= (1L << (bits * (level + 1)))) {
+            level++;
+        }
+        levels.get(level).get((int) ((timeout.deadlineTick >>> (bits * level)) & mask)).append(timeout);
+    }
+
+    private void collect(Slot<T> slot, List<T> expired) {
+        for (Timeout<T> timeout : slot.drain()) {
+            if (timeout.deadlineTick <= currentTick) {
+                expired.add(timeout.item);
+                size--;
+            } else {
+                // Never hand out an item early, whichever slot it ended up in
+                place(timeout);
+            }
+        }
+    }
+
+    private static <T> void link(Timeout<T> first, Timeout<T> second) {
+        first.next = second;
+        second.previous = first;
+    }
+}
@@ -0,0 +1,221 @@
+package hokmah.server;
+
+import static hokmah.Hokmah.EXIT_COMMANDS;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+import hokmah.command.InputHandler;
+import hokmah.exception.HokmahException;
+
+/**
+ * Serves one task list to many clients over TCP on the loopback interface, so every user of a machine
+ * shares one process and one save file instead of overwriting each other's saves.
+ * Each connection gets its own thread and its own session, so one client's undo history and pages
+ * are not another's. Commands that only read run concurrently under a read lock;
+ * commands that change tasks take the write lock and run one at a time.
+ * The task list is safe to share by itself; this lock keeps the steps of one command together,
+ * e.g. checking an index, changing the task there and saving the change.
+ *
+ * <p>The protocol is line based: a client sends one command per line, and the server answers with the
+ * lines of the response followed by a line holding only {@link #END_OF_RESPONSE}. Response lines that
+ * start with a dot get an extra dot in front, so they cannot be mistaken for the end.
+ * An exit command closes the connection, not the server.
+ */
+public class TaskServer {
+    public static final int DEFAULT_PORT = 5780;
+    public static final String END_OF_RESPONSE = ".";
+
+    private static final int BACKLOG = 50;
+
+    private final Supplier<InputHandler> sessions;
+    private final int port;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicInteger connectionCount = new AtomicInteger();
+    private final Set<Socket> clients = ConcurrentHashMap.newKeySet();
+    private ServerSocket serverSocket;
+    private ExecutorService connections;
+    private Thread acceptor;
+
+    /**
+     * Creates a server. Nothing is served until {@link #start} is called.
+     *
+     * @param sessions Creates the handler that runs the commands of each new client
+     * @param port     Port to listen on, or 0 for any free port
+     */
+    public TaskServer(Supplier<InputHandler> sessions, int port) {
+        this.sessions = sessions;
+        this.port = port;
+    }
+
+    /**
+     * Starts listening and accepting clients on a background thread.
+     *
+     * @throws IOException If the port cannot be bound
+     */
+    public synchronized void start() throws IOException {
+        if (serverSocket != null) {
+            return;
+        }
+
+        serverSocket = new ServerSocket(port, BACKLOG, InetAddress.getLoopbackAddress());
+        connections = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "hokmah-client-" + connectionCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        acceptor = new Thread(this::acceptClients, "hokmah-server");
+        acceptor.start();
+    }
+
+    /**
+     * Gets the port the server listens on, which is only known after {@link #start} if 0 was requested.
+     */
+    public synchronized int getPort() {
+        return serverSocket == null ? port : serverSocket.getLocalPort();
+    }
+
+    /**
+     * Waits until the server is closed.
+     *
+     * @throws InterruptedException If the waiting thread is interrupted
+     */
+    public void awaitClose() throws InterruptedException {
+        Thread thread;
+        synchronized (this) {
+            thread = acceptor;
+        }
+        if (thread != null) {
+            thread.join();
+        }
+    }
+
+    /**
+     * Stops accepting clients and drops the connected ones. Commands already running are finished.
+     */
+    public synchronized void close() {
+        if (serverSocket == null) {
+            return;
+        }
+
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            System.out.println("Could not close the server socket");
+        }
+        for (Socket client : clients) {
+            closeQuietly(client);
+        }
+        connections.shutdownNow();
+    }
+
+    /**
+     * Runs one command of a client under the lock its kind needs.
+     *
+     * @param inputHandler The client's session
+     * @param input        Raw command string from the client
+     * @return Response lines
+     */
+    String[] process(InputHandler inputHandler, String input) {
+        Lock commandLock = InputHandler.isReadOnly(input) ? lock.readLock() : lock.writeLock();
+        commandLock.lock();
+        try {
+            return inputHandler.process(input);
+        } catch (HokmahException e) {
+            return e.getMessageLines();
+        } finally {
+            commandLock.unlock();
+        }
+    }
+
+    private void acceptClients() {
+        while (!serverSocket.isClosed()) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+            } catch (IOException e) {
+                // The server socket was closed, which ends the loop
+                continue;
+            }
+
+            clients.add(socket);
+            try {
+                connections.execute(() -> serve(socket));
+            } catch (RejectedExecutionException e) {
+                // The server closed while this client connected
+                clients.remove(socket);
+                closeQuietly(socket);
+            }
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // The client is gone either way
+        }
+    }
+
+    /**
+     * Answers the commands of one client until it leaves or disconnects.
+     */
+    private void serve(Socket socket) {
+        try (socket;
+             BufferedReader in = new BufferedReader(
+                     new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             BufferedWriter out = new BufferedWriter(
+                     new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            InputHandler inputHandler = sessions.get();
+            for (String input = in.readLine(); input != null; input = in.readLine()) {
+                if (input.isBlank()) {
+                    continue;
+                }
+
+                boolean isExitCommand = Arrays.asList(EXIT_COMMANDS).contains(input.trim());
+                writeResponse(out, process(inputHandler, input));
+                if (isExitCommand) {
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            // The client went away; nothing is left to answer
+        } finally {
+            clients.remove(socket);
+        }
+    }
+
+    private static void writeResponse(BufferedWriter out, String[] response) throws IOException {
+        for (String message : response) {
+            for (String line : message.split("\n", -1)) {
+                if (line.startsWith(END_OF_RESPONSE)) {
+                    out.write(END_OF_RESPONSE);
+                }
+                out.write(line);
+                out.write('\n');
+            }
+        }
+        out.write(END_OF_RESPONSE);
+        out.write('\n');
+        out.flush();
+    }
+}
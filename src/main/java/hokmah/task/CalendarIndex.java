@@ -0,0 +1,121 @@
+package hokmah.task;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Tasks bucketed by the calendar days they fall on: deadlines on the day they are due,
+ * events on every day they span. Buckets are sorted by date and their tasks by time,
+ * so an agenda only touches the days and tasks it shows.
+ * Events spanning more than {@link #MAX_INDEXED_DAYS} days are left out, since they would fill
+ * a bucket for every day; an agenda finds them in the {@link IntervalTree} instead.
+ */
+class CalendarIndex {
+    static final int MAX_INDEXED_DAYS = 31;
+
+    private static final Comparator<Task> BY_TIME = Comparator.comparing(CalendarIndex::timeOf)
+            .thenComparingLong(Task::getId);
+
+    private final TreeMap<LocalDate, NavigableSet<Task>> buckets = new TreeMap<>();
+
+    /**
+     * Adds a task to the bucket of every day it falls on.
+     * Tasks without times and events longer than {@link #MAX_INDEXED_DAYS} days are ignored.
+     *
+     * @param task Task with an ID
+     */
+    void add(Task task) {
+        if (!isIndexed(task)) {
+            return;
+        }
+
+        for (LocalDate day = firstDay(task); day != null && !day.isAfter(lastDay(task)); day = day.plusDays(1)) {
+            buckets.computeIfAbsent(day, key -> new TreeSet<>(BY_TIME)).add(task);
+        }
+    }
+
+    /**
+     * Removes a task previously added.
+     *
+     * @param task Task with an ID
+     */
+    void remove(Task task) {
+        if (!isIndexed(task)) {
+            return;
+        }
+
+        for (LocalDate day = firstDay(task); day != null && !day.isAfter(lastDay(task)); day = day.plusDays(1)) {
+            NavigableSet<Task> bucket = buckets.get(day);
+            if (bucket != null && bucket.remove(task) && bucket.isEmpty()) {
+                buckets.remove(day);
+            }
+        }
+    }
+
+    void clear() {
+        buckets.clear();
+    }
+
+    /**
+     * Gets the tasks of every day in a range that has any.
+     *
+     * @param from First day, included
+     * @param to   Last day, included
+     * @return Days in order, each with its tasks in order of time
+     */
+    SortedMap<LocalDate, List<Task>> agenda(LocalDate from, LocalDate to) {
+        SortedMap<LocalDate, List<Task>> agenda = new TreeMap<>();
+        if (to.isBefore(from)) {
+            return agenda;
+        }
+
+        for (Map.Entry<LocalDate, NavigableSet<Task>> entry : buckets.subMap(from, true, to, true).entrySet()) {
+            agenda.put(entry.getKey(), new ArrayList<>(entry.getValue()));
+        }
+        return agenda;
+    }
+
+    /**
+     * Checks whether a task has a time and spans few enough days to be kept in day buckets.
+     *
+     * @param task Any task
+     * @return true if {@link #agenda} finds the task
+     */
+    static boolean isIndexed(Task task) {
+        LocalDate firstDay = firstDay(task);
+        return firstDay != null && ChronoUnit.DAYS.between(firstDay, lastDay(task)) < MAX_INDEXED_DAYS;
+    }
+
+    /**
+     * Gets the time a task is placed at within its days: the start of events, the due time of deadlines.
+     */
+    private static LocalDateTime timeOf(Task task) {
+        return task.getTimeStart() != null ? task.getTimeStart() : task.getTimeEnd();
+    }
+
+    static LocalDate firstDay(Task task) {
+        LocalDateTime time = timeOf(task);
+        return time == null ? null : time.toLocalDate();
+    }
+
+    /**
+     * Gets the last day a task falls on. Events end just before their end time,
+     * so one ending at midnight does not appear on the next day.
+     */
+    static LocalDate lastDay(Task task) {
+        if (task.getTimeStart() == null || task.getTimeEnd() == null
+                || !task.getTimeEnd().isAfter(task.getTimeStart())) {
+            return firstDay(task);
+        }
+        return task.getTimeEnd().minusNanos(1).toLocalDate();
+    }
+}
@@ -0,0 +1,19 @@
+package hokmah.task;
+
+import java.time.format.DateTimeFormatter;
+
+import hokmah.Hokmah;
+
+/**
+ * Date and time formatters shared by everything that shows, saves or reads tasks.
+ * Formatters are immutable and thread-safe, so each pattern is compiled once instead of on every use.
+ */
+public final class DateTimeFormats {
+    public static final DateTimeFormatter DATETIME_INPUT = DateTimeFormatter.ofPattern(Hokmah.DATETIME_INPUT_FORMAT);
+    public static final DateTimeFormatter DATETIME_OUTPUT = DateTimeFormatter.ofPattern(Hokmah.DATETIME_OUTPUT_FORMAT);
+    public static final DateTimeFormatter DATE_INPUT = DateTimeFormatter.ofPattern(Hokmah.DATE_INPUT_FORMAT);
+    public static final DateTimeFormatter DATE_OUTPUT = DateTimeFormatter.ofPattern(Hokmah.DATE_OUTPUT_FORMAT);
+
+    private DateTimeFormats() {
+    }
+}
@@ -1,11 +1,9 @@
 package hokmah.task;
 
-import static hokmah.Hokmah.DATETIME_OUTPUT_FORMAT;
+import static hokmah.task.DateTimeFormats.DATETIME_INPUT;
+import static hokmah.task.DateTimeFormats.DATETIME_OUTPUT;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-
-import hokmah.Hokmah;
 
 
 /**
@@ -46,25 +44,28 @@ public class Deadline extends Task {
     }
 
     /**
-     * Returns formatted string representation.
+     * Appends formatted representation.
      *
-     * @return String with task details and formatted deadline
+     * @param output Buffer to append the task details and formatted deadline to
      */
-    public String toString() {
-        return "[D]" + super.toString()
-                + " (by: "
-                + timeEnd.format(DateTimeFormatter.ofPattern(DATETIME_OUTPUT_FORMAT))
-                + ")";
+    @Override
+    public void appendTo(StringBuilder output) {
+        output.append("[D]");
+        super.appendTo(output);
+        output.append(" (by: ");
+        DATETIME_OUTPUT.formatTo(timeEnd, output);
+        output.append(')');
     }
 
     /**
-     * Generates save-friendly text representation.
+     * Appends save-friendly text representation.
      *
-     * @return Pipe-separated values including deadline time
+     * @param output Buffer to append the pipe-separated values including deadline time to
      */
-    public String getSaveText() {
-        return super.getSaveText()
-                + "|"
-                + timeEnd.format(DateTimeFormatter.ofPattern(Hokmah.DATETIME_INPUT_FORMAT));
+    @Override
+    public void appendSaveText(StringBuilder output) {
+        super.appendSaveText(output);
+        output.append('|');
+        DATETIME_INPUT.formatTo(timeEnd, output);
     }
 }
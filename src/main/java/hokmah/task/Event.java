@@ -1,11 +1,9 @@
 package hokmah.task;
 
-import static hokmah.Hokmah.DATETIME_OUTPUT_FORMAT;
+import static hokmah.task.DateTimeFormats.DATETIME_INPUT;
+import static hokmah.task.DateTimeFormats.DATETIME_OUTPUT;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-
-import hokmah.Hokmah;
 
 
 /**
@@ -58,29 +56,33 @@ public class Event extends Task {
     }
 
     /**
-     * Returns formatted string representation.
+     * Appends formatted representation.
      *
-     * @return String with task details and formatted time range
+     * @param output Buffer to append the task details and formatted time range to
      */
-    public String toString() {
-        return "[E]" + super.toString()
-                + " (from: "
-                + timeStart.format(DateTimeFormatter.ofPattern(DATETIME_OUTPUT_FORMAT))
-                + " to: "
-                + timeEnd.format(DateTimeFormatter.ofPattern(DATETIME_OUTPUT_FORMAT))
-                + ")";
+    @Override
+    public void appendTo(StringBuilder output) {
+        output.append("[E]");
+        super.appendTo(output);
+        output.append(" (from: ");
+        DATETIME_OUTPUT.formatTo(timeStart, output);
+        output.append(" to: ");
+        DATETIME_OUTPUT.formatTo(timeEnd, output);
+        output.append(')');
     }
 
     /**
-     * Generates save-friendly text representation.
+     * Appends save-friendly text representation.
      *
-     * @return Pipe-separated values including event times
+     * @param output Buffer to append the pipe-separated values including event times to
      */
-    public String getSaveText() {
-        return super.getSaveText() + "|"
-                + timeStart.format(DateTimeFormatter.ofPattern(Hokmah.DATETIME_INPUT_FORMAT))
-                + "|"
-                + timeEnd.format(DateTimeFormatter.ofPattern(Hokmah.DATETIME_INPUT_FORMAT));
+    @Override
+    public void appendSaveText(StringBuilder output) {
+        super.appendSaveText(output);
+        output.append('|');
+        DATETIME_INPUT.formatTo(timeStart, output);
+        output.append('|');
+        DATETIME_INPUT.formatTo(timeEnd, output);
     }
 
 }
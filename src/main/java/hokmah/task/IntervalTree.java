@@ -0,0 +1,183 @@
+package hokmah.task;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Interval tree over tasks that have both a start and an end time, such as events.
+ * It is a treap ordered by start time and ID where every node also records the latest end time
+ * in its subtree, so whole subtrees that end too early are skipped.
+ * Intervals are half-open: a task is on from its start time until just before its end time.
+ */
+class IntervalTree {
+    /**
+     * Tree node holding one task and the latest end time below it.
+     */
+    private static class Node {
+        private final Task task;
+        private final int priority = ThreadLocalRandom.current().nextInt();
+        private Node left;
+        private Node right;
+        private LocalDateTime maxEnd;
+
+        Node(Task task) {
+            this.task = task;
+            this.maxEnd = task.getTimeEnd();
+        }
+    }
+
+    private Node root;
+
+    /**
+     * Adds a task if it has both a start and an end time.
+     *
+     * @param task Task with an ID
+     */
+    void add(Task task) {
+        if (!isInterval(task)) {
+            return;
+        }
+
+        Node[] parts = split(root, task);
+        root = merge(merge(parts[0], new Node(task)), parts[1]);
+    }
+
+    /**
+     * Removes a task previously added.
+     *
+     * @param task Task with an ID
+     */
+    void remove(Task task) {
+        if (isInterval(task)) {
+            root = remove(root, task);
+        }
+    }
+
+    void clear() {
+        root = null;
+    }
+
+    /**
+     * Gets the tasks that are on at some point within a window.
+     *
+     * @param from Start of the window, included
+     * @param to   End of the window, excluded
+     * @return Matching tasks in order of start time
+     */
+    List<Task> overlapping(LocalDateTime from, LocalDateTime to) {
+        List<Task> tasks = new ArrayList<>();
+        collect(root, from, to, tasks);
+        return tasks;
+    }
+
+    /**
+     * Gets the tasks that are on at a given time.
+     *
+     * @param time Time to check
+     * @return Matching tasks in order of start time
+     */
+    List<Task> stabbing(LocalDateTime time) {
+        List<Task> tasks = new ArrayList<>();
+        collect(root, time, time.plusNanos(1), tasks);
+        return tasks;
+    }
+
+    /**
+     * Collects tasks with {@code start < to} and {@code end > from} in order of start time.
+     */
+    private static void collect(Node node, LocalDateTime from, LocalDateTime to, List<Task> tasks) {
+        if (node == null || !node.maxEnd.isAfter(from)) {
+            return;
+        }
+
+        collect(node.left, from, to, tasks);
+        if (!node.task.getTimeStart().isBefore(to)) {
+            // Everything to the right starts even later
+            return;
+        }
+
+        if (node.task.getTimeEnd().isAfter(from)) {
+            tasks.add(node.task);
+        }
+        collect(node.right, from, to, tasks);
+    }
+
+    private static Node remove(Node node, Task task) {
+        if (node == null) {
+            return null;
+        }
+
+        if (node.task == task) {
+            return merge(node.left, node.right);
+        }
+
+        if (compare(task, node.task) < 0) {
+            node.left = remove(node.left, task);
+        } else {
+            node.right = remove(node.right, task);
+        }
+        update(node);
+        return node;
+    }
+
+    /**
+     * Splits a tree into the tasks ordered before the given task and the rest.
+     */
+    private static Node[] split(Node node, Task task) {
+        if (node == null) {
+            return new Node[]{null, null};
+        }
+
+        if (compare(task, node.task) <= 0) {
+            Node[] parts = split(node.left, task);
+            node.left = parts[1];
+            update(node);
+            return new Node[]{parts[0], node};
+        }
+
+        Node[] parts = split(node.right, task);
+        node.right = parts[0];
+        update(node);
+        return new Node[]{node, parts[1]};
+    }
+
+    private static Node merge(Node first, Node second) {
+        if (first == null) {
+            return second;
+        }
+        if (second == null) {
+            return first;
+        }
+
+        if (first.priority > second.priority) {
+            first.right = merge(first.right, second);
+            update(first);
+            return first;
+        }
+
+        second.left = merge(first, second.left);
+        update(second);
+        return second;
+    }
+
+    private static void update(Node node) {
+        node.maxEnd = node.task.getTimeEnd();
+        if (node.left != null && node.left.maxEnd.isAfter(node.maxEnd)) {
+            node.maxEnd = node.left.maxEnd;
+        }
+        if (node.right != null && node.right.maxEnd.isAfter(node.maxEnd)) {
+            node.maxEnd = node.right.maxEnd;
+        }
+    }
+
+    private static int compare(Task first, Task second) {
+        int byStart = first.getTimeStart().compareTo(second.getTimeStart());
+        return byStart != 0 ? byStart : Long.compare(first.getId(), second.getId());
+    }
+
+    private static boolean isInterval(Task task) {
+        return task.getTimeStart() != null && task.getTimeEnd() != null;
+    }
+}
@@ -0,0 +1,78 @@
+package hokmah.task;
+
+import static hokmah.task.DateTimeFormats.DATETIME_OUTPUT;
+
+import java.time.LocalDateTime;
+
+/**
+ * Single occurrence of a {@link RecurringTask}, created on demand for query results and never stored.
+ * It shares the ID, name and completion of its series.
+ */
+public class Occurrence extends Task {
+    private final RecurringTask series;
+    private final LocalDateTime time;
+
+    /**
+     * Constructs the occurrence of a series due at a given time.
+     *
+     * @param series The recurring task
+     * @param time   Time this occurrence is due
+     */
+    public Occurrence(RecurringTask series, LocalDateTime time) {
+        super(series.getName());
+        this.series = series;
+        this.time = time;
+        if (series.getId() > 0) {
+            setId(series.getId());
+        }
+    }
+
+    public RecurringTask getSeries() {
+        return series;
+    }
+
+    @Override
+    public boolean isDone() {
+        return series.isDone();
+    }
+
+    /**
+     * Gets the time this occurrence is due.
+     *
+     * @return LocalDateTime of the occurrence
+     */
+    public LocalDateTime getTimeEnd() {
+        return time;
+    }
+
+    /**
+     * Returns task type identifier.
+     *
+     * @return "R", the type of the series
+     */
+    public String getType() {
+        return series.getType();
+    }
+
+    /**
+     * Appends formatted representation.
+     *
+     * @param output Buffer to append the series' status and name and the time of this occurrence to
+     */
+    @Override
+    public void appendTo(StringBuilder output) {
+        output.append("[R]").append(isDone() ? "[X] " : "[ ] ").append(getName()).append(" (on: ");
+        DATETIME_OUTPUT.formatTo(time, output);
+        output.append(')');
+    }
+
+    /**
+     * Appends the save text of the series, since occurrences are not stored on their own.
+     *
+     * @param output Buffer to append the save text of the series to
+     */
+    @Override
+    public void appendSaveText(StringBuilder output) {
+        series.appendSaveText(output);
+    }
+}
@@ -0,0 +1,189 @@
+package hokmah.task;
+
+import static hokmah.task.DateTimeFormats.DATETIME_INPUT;
+import static hokmah.task.DateTimeFormats.DATETIME_OUTPUT;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Task that is due repeatedly, stored as a single rule instead of one task per occurrence.
+ * Occurrences are computed from the rule when a query asks for them, so a series takes the same
+ * space however far ahead anyone looks. Marking the series as done ends it.
+ */
+public class RecurringTask extends Task {
+    /**
+     * How often a recurring task is due.
+     */
+    public enum Frequency {
+        DAILY(ChronoUnit.DAYS),
+        WEEKLY(ChronoUnit.WEEKS),
+        MONTHLY(ChronoUnit.MONTHS);
+
+        private final ChronoUnit unit;
+
+        Frequency(ChronoUnit unit) {
+            this.unit = unit;
+        }
+
+        /**
+         * Gets the frequency with the given name, ignoring case, e.g. "weekly".
+         *
+         * @param name Name of the frequency
+         * @return The frequency, or null if there is none with that name
+         */
+        public static Frequency parse(String name) {
+            for (Frequency frequency : values()) {
+                if (frequency.name().equalsIgnoreCase(name)) {
+                    return frequency;
+                }
+            }
+            return null;
+        }
+    }
+
+    private final LocalDateTime first;
+    private final Frequency frequency;
+    private final LocalDateTime until;
+
+    /**
+     * Constructs a RecurringTask.
+     *
+     * @param name      Task description
+     * @param first     Time the first occurrence is due
+     * @param frequency How often the task is due
+     * @param until     Latest time an occurrence may be due, or null to repeat forever
+     */
+    public RecurringTask(String name, LocalDateTime first, Frequency frequency, LocalDateTime until) {
+        super(name);
+        this.first = first;
+        this.frequency = frequency;
+        this.until = until;
+    }
+
+    public LocalDateTime getFirst() {
+        return first;
+    }
+
+    public Frequency getFrequency() {
+        return frequency;
+    }
+
+    public LocalDateTime getUntil() {
+        return until;
+    }
+
+    /**
+     * Gets the occurrences due within a time range, up to a limit, since a series without an end
+     * has unboundedly many in a long range.
+     *
+     * @param from  Earliest time, included
+     * @param to    Latest time, included
+     * @param limit Maximum number of occurrences
+     * @return Occurrences in order of time
+     */
+    public List<Occurrence> occurrencesBetween(LocalDateTime from, LocalDateTime to, int limit) {
+        List<Occurrence> occurrences = new ArrayList<>();
+        for (long k = firstIndexFrom(from); occurrences.size() < limit; k++) {
+            LocalDateTime time = occurrence(k);
+            if (time.isAfter(to) || isPastEnd(time)) {
+                break;
+            }
+            occurrences.add(new Occurrence(this, time));
+        }
+        return occurrences;
+    }
+
+    /**
+     * Gets the first occurrences due at or after a given time.
+     *
+     * @param from  Earliest time, included
+     * @param count Maximum number of occurrences
+     * @return Occurrences in order of time
+     */
+    public List<Occurrence> occurrencesFrom(LocalDateTime from, int count) {
+        List<Occurrence> occurrences = new ArrayList<>();
+        for (long k = firstIndexFrom(from); occurrences.size() < count; k++) {
+            LocalDateTime time = occurrence(k);
+            if (isPastEnd(time)) {
+                break;
+            }
+            occurrences.add(new Occurrence(this, time));
+        }
+        return occurrences;
+    }
+
+    /**
+     * Returns task type identifier.
+     *
+     * @return "R" for recurring tasks
+     */
+    public String getType() {
+        return "R";
+    }
+
+    /**
+     * Appends formatted representation. When the task is next due is left to due queries,
+     * so the text does not depend on the time it is rendered.
+     *
+     * @param output Buffer to append the task details and its rule to
+     */
+    @Override
+    public void appendTo(StringBuilder output) {
+        output.append("[R]");
+        super.appendTo(output);
+        output.append(" (").append(frequency.name().toLowerCase(Locale.ROOT)).append(" from: ");
+        DATETIME_OUTPUT.formatTo(first, output);
+
+        if (until != null) {
+            output.append(" until: ");
+            DATETIME_OUTPUT.formatTo(until, output);
+        }
+        output.append(')');
+    }
+
+    /**
+     * Appends save-friendly text representation of the rule.
+     *
+     * @param output Buffer to append the pipe-separated values including the first time, frequency
+     *               and optional end to
+     */
+    @Override
+    public void appendSaveText(StringBuilder output) {
+        super.appendSaveText(output);
+        output.append('|');
+        DATETIME_INPUT.formatTo(first, output);
+        output.append('|').append(frequency.name());
+        if (until != null) {
+            output.append('|');
+            DATETIME_INPUT.formatTo(until, output);
+        }
+    }
+
+    private LocalDateTime occurrence(long index) {
+        return first.plus(index, frequency.unit);
+    }
+
+    /**
+     * Finds the index of the first occurrence at or after the given time without stepping through earlier ones.
+     */
+    private long firstIndexFrom(LocalDateTime from) {
+        if (!from.isAfter(first)) {
+            return 0;
+        }
+
+        // The unit count is at most one off, e.g. when months are shortened to fit
+        long index = Math.max(0, frequency.unit.between(first, from) - 1);
+        while (occurrence(index).isBefore(from)) {
+            index++;
+        }
+        return index;
+    }
+
+    private boolean isPastEnd(LocalDateTime time) {
+        return until != null && time.isAfter(until);
+    }
+}
@@ -7,8 +7,10 @@ import java.time.LocalDateTime;
  * Defines common properties and behaviors for all task types.
  */
 public class Task {
-    private boolean isDone = false;
+    private volatile boolean isDone = false;
     private final String name;
+    private long id = 0;
+    private volatile boolean isDirty = true;
 
     /**
      * Constructs a Task with the specified name.
@@ -24,6 +26,7 @@ public class Task {
      */
     public void markDone() {
         isDone = true;
+        isDirty = true;
     }
 
     /**
@@ -31,6 +34,43 @@ public class Task {
      */
     public void unmarkDone() {
         isDone = false;
+        isDirty = true;
+    }
+
+    /**
+     * Gets the stable identifier of the task. Identifiers are handed out in the order
+     * tasks are added and never change, so they also give the order of the list.
+     *
+     * @return The identifier, or 0 if the task has not been saved yet
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Assigns the stable identifier of the task.
+     *
+     * @param id Identifier given by storage
+     */
+    public void setId(long id) {
+        assert id > 0 : "Task identifiers must be positive";
+        this.id = id;
+    }
+
+    /**
+     * Checks if the task changed since it was last written to storage.
+     *
+     * @return true for new tasks and tasks changed since their last save
+     */
+    public boolean isDirty() {
+        return isDirty;
+    }
+
+    /**
+     * Records that the task's current state has been written to storage.
+     */
+    public void markClean() {
+        isDirty = false;
     }
 
 
@@ -85,14 +125,19 @@ public class Task {
      * @return String showing completion status and name
      */
     public String toString() {
-        String output = "";
-        if (isDone) {
-            output += "[X] ";
-        } else {
-            output += "[ ] ";
-        }
-        output += name;
-        return output;
+        StringBuilder output = new StringBuilder();
+        appendTo(output);
+        return output.toString();
+    }
+
+    /**
+     * Appends the formatted representation of the task, so a list of tasks can be rendered
+     * into one buffer without a string per task. Subclasses add their type and times around it.
+     *
+     * @param output Buffer to append to
+     */
+    public void appendTo(StringBuilder output) {
+        output.append(isDone ? "[X] " : "[ ] ").append(name);
     }
 
     /**
@@ -101,16 +146,25 @@ public class Task {
      * @return Pipe-separated values for storage
      */
     public String getSaveText() {
-        String output = "";
-        output += getType() + "|";
-        if (isDone) {
-            output += "1";
-        } else {
-            output += "0";
-        }
-        output += "|" + name;
+        StringBuilder output = new StringBuilder();
+        appendSaveText(output);
+        return output.toString();
+    }
+
+    /**
+     * Appends the save-friendly text representation, so a whole file can be written from one buffer.
+     *
+     * @param output Buffer to append to
+     */
+    public void appendSaveText(StringBuilder output) {
+        output.append(getType()).append('|').append(isDone ? '1' : '0').append('|');
 
-        return output.trim();
+        // Trailing blanks of the name were always trimmed from the save text
+        int end = name.length();
+        while (end > 0 && name.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        output.append(name, 0, end);
     }
 
 
@@ -1,29 +1,132 @@
 package hokmah.task;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.AbstractList;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * Manages collection of tasks and provides list operations.
  * Serves as repository for task storage and manipulation.
+ * Tasks are kept in a size-augmented treap ordered by position, so getting or removing the task at a
+ * display index takes O(log n), and a map from stable task IDs to tree nodes gives O(1) lookup by ID.
+ * Task names are indexed by trigram, so searches for keywords of three or more characters only look at tasks
+ * that can match. Tasks with an end time are kept sorted by it,
+ * events are kept in an interval tree for overlap queries, and every timed task is bucketed by day for agendas.
+ * Recurring tasks are kept apart as rules, and their occurrences are merged into due and agenda queries on demand.
+ *
+ * <p>A TaskList is safe to share between threads. Changes take a write lock, so there is one writer at a time,
+ * and queries take a read lock, so any number of them run together and never see a change half made.
+ * Reads are not lock-free: a query waits while a change is being made, but changes only touch the tree and
+ * the indexes, so the wait is short. Iteration and {@link #getTaskArrayList} work on a copy taken under the
+ * read lock, so they never block writers while the caller goes through the tasks.
+ * Listeners are called after the write lock is released, in the order the changes were made, so a slow
+ * listener holds up neither readers nor the next change.
+ * A sequence of calls, e.g. checking an index and then deleting it, is not atomic and needs the caller's own lock.
  */
-public class TaskList {
-    private ArrayList<Task> taskArrayList;
+public class TaskList implements Iterable<Task> {
+    /**
+     * Most occurrences of recurring tasks one query expands, so a long range over a series without an end
+     * is refused instead of filling memory.
+     */
+    public static final int MAX_OCCURRENCES = 10_000;
+
+    private static final Comparator<Task> BY_END_TIME = Comparator.comparing(Task::getTimeEnd)
+            .thenComparingLong(Task::getId);
+
+    /**
+     * Tree node holding one task. The size of its subtree gives the task's position in the list.
+     */
+    private static class Node {
+        private final Task task;
+        private final int priority = ThreadLocalRandom.current().nextInt();
+        private Node left;
+        private Node right;
+        private Node parent;
+        private int size = 1;
+
+        Node(Task task) {
+            this.task = task;
+        }
+    }
+
+    private Node root;
+    private final Map<Long, Node> nodesById = new HashMap<>();
+    private final TrigramIndex trigramIndex = new TrigramIndex();
+    private final TimeIndex timeIndex = new TimeIndex();
+    private final IntervalTree intervalTree = new IntervalTree();
+    private final CalendarIndex calendarIndex = new CalendarIndex();
+    private final Map<Long, RecurringTask> recurringTasks = new TreeMap<>();
+    private final List<TaskListListener> listeners = new ArrayList<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Queue<Runnable> pendingEvents = new ConcurrentLinkedQueue<>();
+    private final ReentrantLock eventLock = new ReentrantLock();
+    private long nextId = 1;
+    private long version = 0;
 
     /**
      * Constructs an empty TaskList.
      */
     public TaskList() {
-        taskArrayList = new ArrayList<>();
     }
 
 
     /**
-     * Gets the underlying task collection.
+     * Copies the tasks into a new list, in display order.
+     * Changes to the returned list do not affect this TaskList, and later changes to this TaskList
+     * do not affect the returned list.
      *
      * @return ArrayList containing tasks
      */
     public ArrayList<Task> getTaskArrayList() {
-        return taskArrayList;
+        return read(this::snapshot);
+    }
+
+    /**
+     * Gets a read-only view of the tasks in display order, backed by this TaskList.
+     * Each call on the view is consistent on its own; iterating it goes through a copy.
+     *
+     * @return List view whose get takes O(log n) and whose iteration takes O(n)
+     */
+    public List<Task> asList() {
+        return new AbstractList<>() {
+            @Override
+            public Task get(int index) {
+                return TaskList.this.get(index);
+            }
+
+            @Override
+            public int size() {
+                return TaskList.this.size();
+            }
+
+            @Override
+            public Iterator<Task> iterator() {
+                return TaskList.this.iterator();
+            }
+        };
     }
 
     /**
@@ -31,19 +134,277 @@ public class TaskList {
      *
      * @param newTaskArrayList The new collection of tasks
      */
-    public void setTaskArrayList(ArrayList<Task> newTaskArrayList) {
-        taskArrayList = newTaskArrayList;
+    public void setTaskArrayList(Collection<Task> newTaskArrayList) {
+        write(() -> {
+            for (Task task : snapshot()) {
+                notifyListeners(listener -> listener.taskRemoved(task));
+            }
+            version++;
+
+            root = null;
+            nodesById.clear();
+            trigramIndex.clear();
+            timeIndex.clear();
+            intervalTree.clear();
+            calendarIndex.clear();
+            recurringTasks.clear();
+            for (Task task : newTaskArrayList) {
+                add(task);
+            }
+        });
     }
 
     /**
-     * Adds a task to the list.
+     * Adds a task to the end of the list, giving it an ID if it does not have one yet.
      *
      * @param task The task to add
      */
     public void add(Task task) {
-        taskArrayList.add(task);
+        write(() -> {
+            if (task.getId() == 0) {
+                task.setId(nextId);
+            }
+            nextId = Math.max(nextId, task.getId() + 1);
+
+            Node node = index(task);
+            root = merge(root, node);
+            root.parent = null;
+            version++;
+
+            notifyListeners(listener -> listener.taskAdded(task));
+        });
+    }
+
+    /**
+     * Puts tasks back at given display positions, e.g. to revert {@link #deleteAll}.
+     * The tasks keep their IDs.
+     *
+     * @param indexes Zero-based positions the tasks will have once all are inserted
+     * @param tasks   Tasks with IDs, in order of position
+     */
+    public void insertAll(BitSet indexes, List<Task> tasks) {
+        assert indexes.cardinality() == tasks.size() : "Every task needs a position";
+
+        write(() -> {
+            int i = 0;
+            for (int index = indexes.nextSetBit(0); index >= 0; index = indexes.nextSetBit(index + 1)) {
+                Task task = tasks.get(i++);
+                assert task.getId() > 0 && !nodesById.containsKey(task.getId()) : "Task must have a free ID";
+
+                Node[] beforeAndAfter = split(root, index);
+                root = merge(merge(beforeAndAfter[0], index(task)), beforeAndAfter[1]);
+                root.parent = null;
+                version++;
+
+                notifyListeners(listener -> listener.taskAdded(task));
+            }
+        });
+    }
+
+    /**
+     * Gets the task at a display position.
+     *
+     * @param index Zero-based position
+     * @return The task at that position
+     */
+    public Task get(int index) {
+        return read(() -> nodeAt(index).task);
+    }
+
+    /**
+     * Gets a task by its stable ID.
+     *
+     * @param id ID of the task
+     * @return The task, or null if no task in the list has that ID
+     */
+    public Task getById(long id) {
+        return read(() -> {
+            Node node = nodesById.get(id);
+            return node == null ? null : node.task;
+        });
+    }
+
+    /**
+     * Finds the display position of a task.
+     *
+     * @param task The task to look for
+     * @return Zero-based position, or -1 if the task is not in the list
+     */
+    public int indexOf(Task task) {
+        return read(() -> positionOf(task));
+    }
+
+    /**
+     * Removes the task at a display position.
+     *
+     * @param index Zero-based position
+     * @return The removed task
+     */
+    public Task delete(int index) {
+        return write(() -> {
+            Node node = nodeAt(index);
+
+            Node[] beforeAndRest = split(root, index);
+            Node[] removedAndAfter = split(beforeAndRest[1], 1);
+            root = merge(beforeAndRest[0], removedAndAfter[1]);
+            if (root != null) {
+                root.parent = null;
+            }
+
+            unindex(node.task);
+            version++;
+            notifyListeners(listener -> listener.taskRemoved(node.task));
+            return node.task;
+        });
+    }
+
+    /**
+     * Removes the tasks at many display positions in one operation.
+     * Each run of consecutive positions is cut out of the tree with a single split and merge,
+     * so removing a range takes O(log n) plus the number of tasks removed.
+     *
+     * @param indexes Zero-based positions, all within the list
+     * @return The removed tasks in display order
+     */
+    public List<Task> deleteAll(BitSet indexes) {
+        return write(() -> {
+            assert indexes.length() <= size() : "Index out of bounds";
+
+            List<Task> removed = new ArrayList<>(indexes.cardinality());
+            int start = indexes.nextSetBit(0);
+            while (start >= 0) {
+                int end = indexes.nextClearBit(start);
+
+                // Earlier runs are already gone, so this run has moved forward by their length
+                Node[] beforeAndRest = split(root, start - removed.size());
+                Node[] runAndAfter = split(beforeAndRest[1], end - start);
+                root = merge(beforeAndRest[0], runAndAfter[1]);
+                if (root != null) {
+                    root.parent = null;
+                }
+
+                collect(runAndAfter[0], removed);
+                start = indexes.nextSetBit(end);
+            }
+
+            for (Task task : removed) {
+                unindex(task);
+                version++;
+                notifyListeners(listener -> listener.taskRemoved(task));
+            }
+            return removed;
+        });
+    }
+
+    /**
+     * Marks the task at a display position as done.
+     *
+     * @param index Zero-based position
+     * @return The marked task
+     */
+    public Task mark(int index) {
+        return write(() -> {
+            Task task = nodeAt(index).task;
+            if (!task.isDone()) {
+                version++;
+            }
+            task.markDone();
+            timeIndex.updateDone(task);
+            notifyListeners(listener -> listener.taskChanged(task));
+            return task;
+        });
+    }
+
+    /**
+     * Marks the task at a display position as not done.
+     *
+     * @param index Zero-based position
+     * @return The unmarked task
+     */
+    public Task unmark(int index) {
+        return write(() -> {
+            Task task = nodeAt(index).task;
+            if (task.isDone()) {
+                version++;
+            }
+            task.unmarkDone();
+            timeIndex.updateDone(task);
+            notifyListeners(listener -> listener.taskChanged(task));
+            return task;
+        });
+    }
+
+    /**
+     * Marks the tasks at many display positions as done.
+     *
+     * @param indexes Zero-based positions, all within the list
+     * @return The marked tasks in display order
+     */
+    public List<Task> markAll(BitSet indexes) {
+        return write(() -> {
+            List<Task> marked = new ArrayList<>(indexes.cardinality());
+            for (int index = indexes.nextSetBit(0); index >= 0; index = indexes.nextSetBit(index + 1)) {
+                marked.add(mark(index));
+            }
+            return marked;
+        });
     }
 
+    /**
+     * Marks the tasks at many display positions as not done.
+     *
+     * @param indexes Zero-based positions, all within the list
+     * @return The unmarked tasks in display order
+     */
+    public List<Task> unmarkAll(BitSet indexes) {
+        return write(() -> {
+            List<Task> unmarked = new ArrayList<>(indexes.cardinality());
+            for (int index = indexes.nextSetBit(0); index >= 0; index = indexes.nextSetBit(index + 1)) {
+                unmarked.add(unmark(index));
+            }
+            return unmarked;
+        });
+    }
+
+    /**
+     * Gets the display positions of the tasks that are done.
+     *
+     * @return Zero-based positions of done tasks
+     */
+    public BitSet doneIndexes() {
+        return read(() -> {
+            BitSet indexes = new BitSet(sizeOf(root));
+            int index = 0;
+            for (Task task : snapshot()) {
+                if (task.isDone()) {
+                    indexes.set(index);
+                }
+                index++;
+            }
+            return indexes;
+        });
+    }
+
+    /**
+     * Gets a number that changes whenever tasks are added, removed, or marked or unmarked for real,
+     * so a caller can tell whether anyone changed the list since it last looked.
+     *
+     * @return Current version of the list
+     */
+    public long getVersion() {
+        return read(() -> version);
+    }
+
+    /**
+     * Registers a listener for tasks being added, removed, marked or unmarked.
+     *
+     * @param listener Listener to notify
+     */
+    public void addListener(TaskListListener listener) {
+        write(() -> {
+            listeners.add(listener);
+        });
+    }
 
     /**
      * Removes a task from the list.
@@ -51,7 +412,166 @@ public class TaskList {
      * @param task The task to remove
      */
     public void delete(Task task) {
-        taskArrayList.remove(task);
+        write(() -> {
+            int index = positionOf(task);
+            if (index >= 0) {
+                delete(index);
+            }
+        });
+    }
+
+    /**
+     * Finds the tasks whose names contain the keyword, exactly like {@link String#contains}.
+     * Only tasks sharing the keyword's trigrams are checked. Shorter keywords are checked against every task,
+     * since almost every name contains one or two given characters and an index would not narrow the search.
+     *
+     * @param keyword Case-sensitive text to search for
+     * @return Matching tasks in display order
+     */
+    public List<Task> find(String keyword) {
+        return read(() -> {
+            List<Task> matches = new ArrayList<>();
+            if (keyword.length() < TrigramIndex.GRAM_LENGTH) {
+                for (Task task : snapshot()) {
+                    if (task.getName().contains(keyword)) {
+                        matches.add(task);
+                    }
+                }
+                return matches;
+            }
+
+            for (long id : trigramIndex.candidates(keyword)) {
+                Node node = nodesById.get(id);
+                if (node != null && node.task.getName().contains(keyword)) {
+                    matches.add(node.task);
+                }
+            }
+            matches.sort(Comparator.comparingInt(this::positionOf));
+            return matches;
+        });
+    }
+
+    /**
+     * Gets the tasks whose end time falls within a range, e.g. deadlines due in a week,
+     * including the occurrences of recurring tasks due in it.
+     *
+     * @param from Earliest end time, included
+     * @param to   Latest end time, included
+     * @return Matching tasks in order of end time
+     * @throws IllegalArgumentException If the range holds more than {@link #MAX_OCCURRENCES} occurrences
+     */
+    public List<Task> dueBetween(LocalDateTime from, LocalDateTime to) {
+        return read(() -> {
+            List<Task> due = timeIndex.between(from, to);
+            if (recurringTasks.isEmpty()) {
+                return due;
+            }
+
+            due.addAll(occurrencesBetween(from, to));
+            due.sort(BY_END_TIME);
+            return due;
+        });
+    }
+
+    /**
+     * Gets the next tasks that are not done yet and end at or after the given time,
+     * including the next occurrences of recurring tasks that are not done.
+     *
+     * @param from  Time to look from, usually now
+     * @param count Maximum number of tasks to return
+     * @return Matching tasks in order of end time
+     */
+    public List<Task> nextDue(LocalDateTime from, int count) {
+        return read(() -> {
+            List<Task> next = timeIndex.next(from, count);
+            if (recurringTasks.isEmpty()) {
+                return next;
+            }
+
+            for (RecurringTask recurringTask : recurringTasks.values()) {
+                if (!recurringTask.isDone()) {
+                    next.addAll(recurringTask.occurrencesFrom(from, count));
+                }
+            }
+            next.sort(BY_END_TIME);
+            return next.size() > count ? new ArrayList<>(next.subList(0, count)) : next;
+        });
+    }
+
+    /**
+     * Gets the events that are on at some point within a window.
+     * An event is on from its start time until just before its end time.
+     *
+     * @param from Start of the window, included
+     * @param to   End of the window, excluded
+     * @return Matching events in order of start time
+     */
+    public List<Task> overlapping(LocalDateTime from, LocalDateTime to) {
+        return read(() -> intervalTree.overlapping(from, to));
+    }
+
+    /**
+     * Gets the events that are on at a given time.
+     *
+     * @param time Time to check
+     * @return Matching events in order of start time
+     */
+    public List<Task> happeningAt(LocalDateTime time) {
+        return read(() -> intervalTree.stabbing(time));
+    }
+
+    /**
+     * Gets the agenda of a range of days: deadlines on the day they are due and events on every day they span.
+     * Events too long for the calendar index are found in the interval tree and added to the days shown.
+     *
+     * @param from First day, included
+     * @param to   Last day, included
+     * @return Days that have tasks, in order, each with its tasks in order of time
+     * @throws IllegalArgumentException If the days hold more than {@link #MAX_OCCURRENCES} occurrences
+     */
+    public SortedMap<LocalDate, List<Task>> agenda(LocalDate from, LocalDate to) {
+        return read(() -> {
+            SortedMap<LocalDate, List<Task>> agenda = calendarIndex.agenda(from, to);
+            if (to.isBefore(from)) {
+                return agenda;
+            }
+
+            Set<List<Task>> changedDays = Collections.newSetFromMap(new IdentityHashMap<>());
+            int longEventDays = 0;
+            for (Task event : intervalTree.overlapping(from.atStartOfDay(), to.plusDays(1).atStartOfDay())) {
+                if (CalendarIndex.isIndexed(event)) {
+                    continue;
+                }
+
+                LocalDate firstDay = CalendarIndex.firstDay(event);
+                LocalDate lastDay = CalendarIndex.lastDay(event);
+                LocalDate shownUntil = lastDay.isBefore(to) ? lastDay : to;
+                for (LocalDate day = firstDay.isAfter(from) ? firstDay : from; !day.isAfter(shownUntil);
+                        day = day.plusDays(1)) {
+                    if (++longEventDays > MAX_OCCURRENCES) {
+                        throw new IllegalArgumentException("More than " + MAX_OCCURRENCES + " events in range");
+                    }
+                    List<Task> dayTasks = agenda.computeIfAbsent(day, key -> new ArrayList<>());
+                    dayTasks.add(event);
+                    changedDays.add(dayTasks);
+                }
+            }
+
+            if (!recurringTasks.isEmpty()) {
+                LocalDateTime start = from.atStartOfDay();
+                LocalDateTime end = to.atTime(LocalTime.MAX);
+                for (Occurrence occurrence : occurrencesBetween(start, end)) {
+                    List<Task> day = agenda.computeIfAbsent(occurrence.getTimeEnd().toLocalDate(),
+                            key -> new ArrayList<>());
+                    day.add(occurrence);
+                    changedDays.add(day);
+                }
+            }
+            for (List<Task> day : changedDays) {
+                day.sort(Comparator.comparing(TaskList::timeOf).thenComparingLong(Task::getId));
+            }
+            return agenda;
+        });
     }
 
     /**
@@ -60,17 +580,267 @@ public class TaskList {
      * @return Current task count
      */
     public int size() {
-        return taskArrayList.size();
+        return read(() -> sizeOf(root));
+    }
+
+    /**
+     * Iterates over a copy of the tasks in display order, so changes made meanwhile are not seen.
+     */
+    @Override
+    public Iterator<Task> iterator() {
+        return getTaskArrayList().iterator();
     }
 
     /**
      * Prints all tasks in the list to standard output.
      */
     public void printTasks() {
-        for (Task task : taskArrayList) {
+        for (Task task : this) {
             if (task != null) {
                 System.out.println(task);
             }
         }
     }
+
+    /**
+     * Runs a query under the read lock.
+     */
+    private <T> T read(Supplier<T> query) {
+        lock.readLock().lock();
+        try {
+            return query.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Runs a change under the write lock, then tells the listeners about it once the lock is released.
+     */
+    private <T> T write(Supplier<T> change) {
+        lock.writeLock().lock();
+        try {
+            return change.get();
+        } finally {
+            lock.writeLock().unlock();
+            dispatchEvents();
+        }
+    }
+
+    private void write(Runnable change) {
+        write(() -> {
+            change.run();
+            return null;
+        });
+    }
+
+    /**
+     * Queues a call to every listener. The caller must hold the write lock, so events queue in change order.
+     */
+    private void notifyListeners(Consumer<TaskListListener> event) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        List<TaskListListener> targets = List.copyOf(listeners);
+        pendingEvents.add(() -> targets.forEach(event));
+    }
+
+    /**
+     * Delivers queued events in order. Does nothing inside a nested change, since the outermost one delivers them.
+     * Waiting for the event lock means events queued by this thread are delivered before the change returns,
+     * even when another thread is delivering them. The event lock is never taken while the write lock is held,
+     * so a listener may query or change the list.
+     */
+    private void dispatchEvents() {
+        if (lock.isWriteLockedByCurrentThread()) {
+            return;
+        }
+        eventLock.lock();
+        try {
+            Runnable event;
+            while ((event = pendingEvents.poll()) != null) {
+                event.run();
+            }
+        } finally {
+            eventLock.unlock();
+        }
+    }
+
+    /**
+     * Copies the tasks into a new list in display order. The caller must hold the lock.
+     */
+    private ArrayList<Task> snapshot() {
+        ArrayList<Task> tasks = new ArrayList<>(sizeOf(root));
+        collect(root, tasks);
+        return tasks;
+    }
+
+    /**
+     * Expands the occurrences of every recurring task within a range. The caller must hold the lock.
+     *
+     * @throws IllegalArgumentException If there are more than {@link #MAX_OCCURRENCES} of them
+     */
+    private List<Occurrence> occurrencesBetween(LocalDateTime from, LocalDateTime to) {
+        List<Occurrence> occurrences = new ArrayList<>();
+        for (RecurringTask recurringTask : recurringTasks.values()) {
+            int remaining = MAX_OCCURRENCES - occurrences.size();
+            List<Occurrence> seriesOccurrences = recurringTask.occurrencesBetween(from, to, remaining + 1);
+            if (seriesOccurrences.size() > remaining) {
+                throw new IllegalArgumentException("More than " + MAX_OCCURRENCES + " occurrences in range");
+            }
+            occurrences.addAll(seriesOccurrences);
+        }
+        return occurrences;
+    }
+
+    /**
+     * Gets the time a task is placed at within its day: the start of events, the due time of others.
+     */
+    private static LocalDateTime timeOf(Task task) {
+        return task.getTimeStart() != null ? task.getTimeStart() : task.getTimeEnd();
+    }
+
+    /**
+     * Creates the tree node of a new task and adds the task to the ID map and every index.
+     */
+    private Node index(Task task) {
+        Node node = new Node(task);
+        nodesById.put(task.getId(), node);
+        trigramIndex.add(task);
+        timeIndex.add(task);
+        intervalTree.add(task);
+        calendarIndex.add(task);
+        if (task instanceof RecurringTask recurringTask) {
+            recurringTasks.put(task.getId(), recurringTask);
+        }
+        return node;
+    }
+
+    /**
+     * Drops a removed task from the ID map and every index.
+     */
+    private void unindex(Task task) {
+        nodesById.remove(task.getId());
+        trigramIndex.remove(task);
+        timeIndex.remove(task);
+        intervalTree.remove(task);
+        calendarIndex.remove(task);
+        recurringTasks.remove(task.getId());
+    }
+
+    /**
+     * Appends the tasks of a tree to a list in display order.
+     */
+    private static void collect(Node node, List<Task> tasks) {
+        Deque<Node> path = new ArrayDeque<>();
+        while (node != null || !path.isEmpty()) {
+            while (node != null) {
+                path.push(node);
+                node = node.left;
+            }
+            node = path.pop();
+            tasks.add(node.task);
+            node = node.right;
+        }
+    }
+
+    /**
+     * Finds the display position of a task without taking the lock.
+     */
+    private int positionOf(Task task) {
+        Node node = nodesById.get(task.getId());
+        if (node == null || node.task != task) {
+            return -1;
+        }
+
+        int index = sizeOf(node.left);
+        for (Node child = node; child.parent != null; child = child.parent) {
+            if (child.parent.right == child) {
+                index += sizeOf(child.parent.left) + 1;
+            }
+        }
+        return index;
+    }
+
+    private Node nodeAt(int index) {
+        if (index < 0 || index >= sizeOf(root)) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + sizeOf(root));
+        }
+
+        Node node = root;
+        while (true) {
+            int leftSize = sizeOf(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index == leftSize) {
+                return node;
+            } else {
+                index -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    /**
+     * Joins two trees, placing every task of the first before every task of the second.
+     */
+    private static Node merge(Node first, Node second) {
+        if (first == null) {
+            return second;
+        }
+        if (second == null) {
+            return first;
+        }
+
+        if (first.priority > second.priority) {
+            first.right = merge(first.right, second);
+            update(first);
+            return first;
+        }
+
+        second.left = merge(first, second.left);
+        update(second);
+        return second;
+    }
+
+    /**
+     * Splits a tree into the first {@code count} tasks and the rest.
+     */
+    private static Node[] split(Node node, int count) {
+        if (node == null) {
+            return new Node[]{null, null};
+        }
+
+        if (count <= sizeOf(node.left)) {
+            Node[] parts = split(node.left, count);
+            node.left = parts[1];
+            update(node);
+            if (parts[0] != null) {
+                parts[0].parent = null;
+            }
+            return new Node[]{parts[0], node};
+        }
+
+        Node[] parts = split(node.right, count - sizeOf(node.left) - 1);
+        node.right = parts[0];
+        update(node);
+        if (parts[1] != null) {
+            parts[1].parent = null;
+        }
+        return new Node[]{node, parts[1]};
+    }
+
+    private static void update(Node node) {
+        node.size = 1 + sizeOf(node.left) + sizeOf(node.right);
+        if (node.left != null) {
+            node.left.parent = node;
+        }
+        if (node.right != null) {
+            node.right.parent = node;
+        }
+    }
+
+    private static int sizeOf(Node node) {
+        return node == null ? 0 : node.size;
+    }
 }
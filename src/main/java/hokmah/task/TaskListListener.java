@@ -0,0 +1,27 @@
+package hokmah.task;
+
+/**
+ * Receives changes made to a {@link TaskList}, e.g. to keep reminders in sync with it.
+ */
+public interface TaskListListener {
+    /**
+     * Called after a task has been added.
+     *
+     * @param task The added task
+     */
+    void taskAdded(Task task);
+
+    /**
+     * Called after a task has been removed.
+     *
+     * @param task The removed task
+     */
+    void taskRemoved(Task task);
+
+    /**
+     * Called after a task has been marked or unmarked.
+     *
+     * @param task The changed task
+     */
+    void taskChanged(Task task);
+}
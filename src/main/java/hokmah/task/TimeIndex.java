@@ -0,0 +1,117 @@
+package hokmah.task;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * Tasks with an end time, sorted by that time and then by ID.
+ * Tasks not yet done are also kept in a second tree, so looking for the next tasks due never walks
+ * past done ones. Range queries walk only the matching part of a tree, so they take O(log n + k).
+ */
+class TimeIndex {
+    private static final Comparator<Task> BY_TIME = Comparator.comparing(Task::getTimeEnd)
+            .thenComparingLong(Task::getId);
+
+    private final NavigableSet<Task> tasksByTime = new TreeSet<>(BY_TIME);
+    private final NavigableSet<Task> undoneByTime = new TreeSet<>(BY_TIME);
+
+    /**
+     * Adds a task if it has an end time.
+     *
+     * @param task Task with an ID
+     */
+    void add(Task task) {
+        if (task.getTimeEnd() != null) {
+            tasksByTime.add(task);
+            updateDone(task);
+        }
+    }
+
+    /**
+     * Removes a task previously added.
+     *
+     * @param task Task with an ID
+     */
+    void remove(Task task) {
+        if (task.getTimeEnd() != null) {
+            tasksByTime.remove(task);
+            undoneByTime.remove(task);
+        }
+    }
+
+    /**
+     * Moves a task added before in or out of the tasks not yet done, after it was marked or unmarked.
+     *
+     * @param task Task with an ID
+     */
+    void updateDone(Task task) {
+        if (task.getTimeEnd() == null) {
+            return;
+        }
+
+        if (task.isDone()) {
+            undoneByTime.remove(task);
+        } else {
+            undoneByTime.add(task);
+        }
+    }
+
+    void clear() {
+        tasksByTime.clear();
+        undoneByTime.clear();
+    }
+
+    /**
+     * Gets the tasks ending within a time range, both ends included.
+     *
+     * @param from Earliest end time
+     * @param to   Latest end time
+     * @return Tasks in order of end time
+     */
+    List<Task> between(LocalDateTime from, LocalDateTime to) {
+        if (to.isBefore(from)) {
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(tasksByTime.subSet(lowerBound(from), true, upperBound(to), true));
+    }
+
+    /**
+     * Gets the first tasks not yet done that end at or after the given time, in O(log n + count).
+     *
+     * @param from  Earliest end time
+     * @param count Maximum number of tasks to return
+     * @return Tasks in order of end time
+     */
+    List<Task> next(LocalDateTime from, int count) {
+        List<Task> tasks = new ArrayList<>();
+        for (Task task : undoneByTime.tailSet(lowerBound(from), true)) {
+            if (tasks.size() >= count) {
+                break;
+            }
+            if (!task.isDone()) {
+                tasks.add(task);
+            }
+        }
+        return tasks;
+    }
+
+    /**
+     * Creates a search key that sorts before every task ending at the given time, as real IDs start at 1.
+     */
+    private static Task lowerBound(LocalDateTime time) {
+        return new Deadline("", time);
+    }
+
+    /**
+     * Creates a search key that sorts after every task ending at the given time.
+     */
+    private static Task upperBound(LocalDateTime time) {
+        Task key = new Deadline("", time);
+        key.setId(Long.MAX_VALUE);
+        return key;
+    }
+}
@@ -26,11 +26,13 @@ public class ToDo extends Task {
     }
 
     /**
-     * Returns formatted string representation.
+     * Appends formatted representation.
      *
-     * @return String with task details
+     * @param output Buffer to append the task details to
      */
-    public String toString() {
-        return "[T]" + super.toString();
+    @Override
+    public void appendTo(StringBuilder output) {
+        output.append("[T]");
+        super.appendTo(output);
     }
 }
@@ -0,0 +1,88 @@
+package hokmah.task;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Index from every run of three characters in task names to the IDs of the tasks containing it.
+ * A name that contains a keyword contains all of the keyword's trigrams, so intersecting their
+ * posting lists gives every possible match of a substring search, including partial words.
+ * Characters are indexed as they are, matching the case-sensitive {@link String#contains}.
+ */
+class TrigramIndex {
+    /**
+     * Keywords shorter than this have no trigrams to look up.
+     */
+    static final int GRAM_LENGTH = 3;
+
+    private final Map<Long, Set<Long>> postings = new HashMap<>();
+
+    /**
+     * Adds the trigrams of a task's name to the index.
+     *
+     * @param task Task with an ID
+     */
+    void add(Task task) {
+        for (long trigram : trigrams(task.getName())) {
+            postings.computeIfAbsent(trigram, key -> new HashSet<>()).add(task.getId());
+        }
+    }
+
+    /**
+     * Removes the trigrams of a task's name from the index.
+     *
+     * @param task Task previously added
+     */
+    void remove(Task task) {
+        for (long trigram : trigrams(task.getName())) {
+            Set<Long> ids = postings.get(trigram);
+            if (ids != null && ids.remove(task.getId()) && ids.isEmpty()) {
+                postings.remove(trigram);
+            }
+        }
+    }
+
+    void clear() {
+        postings.clear();
+    }
+
+    /**
+     * Finds the tasks whose names contain every trigram of the keyword.
+     *
+     * @param keyword Text to search for, at least {@link #GRAM_LENGTH} characters long
+     * @return IDs of every task that could match
+     */
+    Set<Long> candidates(String keyword) {
+        assert keyword.length() >= GRAM_LENGTH : "Keyword is too short for trigrams";
+
+        List<Set<Long>> lists = new ArrayList<>();
+        for (long trigram : trigrams(keyword)) {
+            Set<Long> ids = postings.get(trigram);
+            if (ids == null) {
+                return new HashSet<>();
+            }
+            lists.add(ids);
+        }
+
+        // Start from the rarest trigram so the candidate set is small from the beginning
+        lists.sort(Comparator.comparingInt(Set::size));
+        Set<Long> candidates = new HashSet<>(lists.get(0));
+        for (int i = 1; i < lists.size() && !candidates.isEmpty(); i++) {
+            candidates.retainAll(lists.get(i));
+        }
+        return candidates;
+    }
+
+    private static Set<Long> trigrams(String text) {
+        Set<Long> trigrams = new HashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+            trigrams.add(((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2));
+        }
+        return trigrams;
+    }
+}
@@ -1,59 +1,53 @@
 package view;
 
-import java.io.IOException;
-import java.util.Collections;
-
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
-import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
+import javafx.geometry.Insets;
 import javafx.geometry.Pos;
-import javafx.scene.Node;
 import javafx.scene.control.Label;
-import javafx.scene.image.ImageView;
 import javafx.scene.layout.HBox;
 
 /**
- * Represents a dialog box consisting of an ImageView to represent the speaker's face
- * and a label containing text from the speaker.
+ * Represents a dialog box consisting of a label containing text from the speaker.
+ * The box is built in code rather than loaded from FXML, since the conversation list creates one per cell,
+ * and it is reused for different messages as the list scrolls.
  */
 public class DialogBoxController extends HBox {
-    @FXML
-    private Label dialog;
-    @FXML
-    private ImageView displayPicture;
-
-    private DialogBoxController(String text) {
-        try {
-            FXMLLoader fxmlLoader = new FXMLLoader(MainWindowController.class.getResource("/view/DialogBox.fxml"));
-            fxmlLoader.setController(this);
-            fxmlLoader.setRoot(this);
-            fxmlLoader.load();
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-
-        dialog.setText(text);
+    private static final String STYLESHEET =
+            DialogBoxController.class.getResource("/css/dialogue-box.css").toExternalForm();
+    private static final String REPLY_STYLE_CLASS = "reply-label";
+    private static final double PREF_WIDTH = 400.0;
+
+    private final Label dialog = new Label();
+
+    DialogBoxController() {
+        dialog.setWrapText(true);
+        dialog.setMinHeight(USE_PREF_SIZE);
+        dialog.setPadding(new Insets(6.0));
+        setMargin(dialog, new Insets(0.0, 7.0, 0.0, 7.0));
+
+        setAlignment(Pos.TOP_RIGHT);
+        setMaxSize(Double.MAX_VALUE, Double.MAX_VALUE);
+        setPrefWidth(PREF_WIDTH);
+        setPadding(new Insets(5.0));
+        getStylesheets().add(STYLESHEET);
+        getChildren().add(dialog);
     }
 
     /**
-     * Flips the dialog box such that the ImageView is on the left and text on the right.
+     * Shows a message, with the user's on the right and Hokmah's replies on the left.
+     * Switching sides only changes the alignment and the label's style, without rebuilding the box.
+     *
+     * @param message The message to show
      */
-    private void flip() {
-        ObservableList<Node> tmp = FXCollections.observableArrayList(this.getChildren());
-        Collections.reverse(tmp);
-        getChildren().setAll(tmp);
-        setAlignment(Pos.TOP_LEFT);
-        dialog.getStyleClass().add("reply-label");
-    }
-
-    public static DialogBoxController getUserDialog(String text) {
-        return new DialogBoxController(text);
-    }
-
-    public static DialogBoxController getHokmahDialog(String text) {
-        var db = new DialogBoxController(text);
-        db.flip();
-        return db;
+    void setMessage(Message message) {
+        dialog.setText(message.text());
+        if (message.isUser()) {
+            setAlignment(Pos.TOP_RIGHT);
+            dialog.getStyleClass().remove(REPLY_STYLE_CLASS);
+        } else {
+            setAlignment(Pos.TOP_LEFT);
+            if (!dialog.getStyleClass().contains(REPLY_STYLE_CLASS)) {
+                dialog.getStyleClass().add(REPLY_STYLE_CLASS);
+            }
+        }
     }
 }
@@ -2,6 +2,7 @@ package view;
 
 
 import static hokmah.Hokmah.DATETIME_INPUT_FORMAT;
+import static hokmah.Hokmah.DATE_INPUT_FORMAT;
 
 import java.io.IOException;
 
@@ -49,19 +50,34 @@ public class HelpWindowController extends AnchorPane {
         helpLabel.setText("Here's what I can do. You better be grateful.");
 
         String[][] helpTexts = {
-                {"list", "Shows all the tasks in the list"},
+                {"list", "Shows the tasks in the list, a page at a time"},
+                {"more", "Shows the next page of the last list, search, due, event or agenda results"},
                 {"todo [name]", "Adds a todo task to the task list"},
                 {"deadline [name] /by ["
                         + DATETIME_INPUT_FORMAT + "]", "Adds a deadline task to the task list"},
                 {"event [name] /from ["
                         + DATETIME_INPUT_FORMAT + "] /to ["
                         + DATETIME_INPUT_FORMAT + "]", "Adds an event task to the task list"},
+                {"recur [name] /from [" + DATETIME_INPUT_FORMAT + "] /every [daily | weekly | monthly]"
+                        + " (/until [" + DATETIME_INPUT_FORMAT + "])", "Adds a task that repeats"},
                 {"mark [task index]", "Marks the task at [task index] in the task list as completed"},
                 {"unmark [task index]", "Marks the task at [task index] in the task list as incomplete"},
                 {"delete [task index]", "Deletes the task at [task index] in the task list"},
+                {"mark / unmark / delete [from]-[to],[index]", "Does the same to every task in the ranges and indexes"},
+                {"unmark / delete done", "Does the same to every completed task"},
                 {"upcomingOn ["
                         + DATETIME_INPUT_FORMAT + "]", "Shows all the tasks that are happening on the given date"},
+                {"dueBetween [" + DATETIME_INPUT_FORMAT + "] /to ["
+                        + DATETIME_INPUT_FORMAT + "]", "Shows all the tasks due between the two dates"},
+                {"dueToday", "Shows all the tasks due today"},
+                {"nextDue [count]", "Shows the next [count] tasks that are not done yet"},
+                {"overlaps [" + DATETIME_INPUT_FORMAT + "] /to ["
+                        + DATETIME_INPUT_FORMAT + "]", "Shows all the events on between the two dates"},
+                {"happeningAt [" + DATETIME_INPUT_FORMAT + "]", "Shows all the events on at the given time"},
+                {"agenda [week | " + DATE_INPUT_FORMAT + "]", "Shows today's, this week's or the given day's agenda"},
                 {"find [keyword]", "Finds tasks containing the specified keyword"},
+                {"undo / redo", "Reverts or reapplies the last add, mark, unmark or delete"},
+                {"run [file]", "Runs every command in the file, one per line"},
                 {"bye", "Only if you want to leave. It's not like I wanted you to be here."}
         };
 
@@ -13,8 +13,11 @@ import javafx.stage.Stage;
 
 /**
  * A GUI for Hokmah using FXML.
+ * {@code --history=[count]} sets how many messages the conversation keeps,
+ * and {@code --write-behind} saves changes in bursts instead of after every command.
  */
 public class Main extends Application {
+    public static final String HISTORY_PARAMETER = "history";
 
     private final Hokmah hokmah = new Hokmah();
 
@@ -35,8 +38,14 @@ public class Main extends Application {
             assert stage.getMinHeight() == 400;
             assert stage.getMinWidth() == 900;
 
-            fxmlLoader.<MainWindowController>getController().setHokmah(hokmah);
-            fxmlLoader.<MainWindowController>getController().showWelcomeMessage();
+            MainWindowController controller = fxmlLoader.getController();
+            if (getParameters().getRaw().contains(Hokmah.WRITE_BEHIND_FLAG)) {
+                hokmah.enableWriteBehind();
+            }
+            hokmah.start();
+            controller.setHokmah(hokmah);
+            setHistoryLimit(controller);
+            controller.showWelcomeMessage();
             stage.show();
 
         } catch (IOException e) {
@@ -44,4 +53,21 @@ public class Main extends Application {
         }
     }
 
+    private void setHistoryLimit(MainWindowController controller) {
+        String historyLimit = getParameters().getNamed().get(HISTORY_PARAMETER);
+        if (historyLimit == null) {
+            return;
+        }
+
+        try {
+            int limit = Integer.parseInt(historyLimit);
+            if (limit > 0) {
+                controller.setHistoryLimit(limit);
+                return;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        System.out.println("Invalid history limit: " + historyLimit + ", keeping the default");
+    }
 }
@@ -1,66 +1,128 @@
 package view;
 
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Timer;
 import java.util.TimerTask;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import hokmah.Hokmah;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
+import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
-import javafx.scene.control.ScrollPane;
+import javafx.scene.control.ListView;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.control.TextField;
 import javafx.scene.layout.AnchorPane;
-import javafx.scene.layout.VBox;
+import javafx.util.Duration;
 
 
 /**
  * Controller for the main GUI.
+ * The conversation is shown in a list view, which only creates nodes for the messages in sight,
+ * and only the latest messages are kept, so a long session or a long task list does not slow the window down.
+ * Commands run one at a time on a background thread, so a slow save or search never freezes the window.
+ * Input sent meanwhile waits its turn, and a progress indicator shows while a command takes a while.
  */
 public class MainWindowController extends AnchorPane {
+    public static final int DEFAULT_HISTORY_LIMIT = 1000;
+
+    /**
+     * Longest message shown in one dialog box. Longer responses, like a long task list, are split over several.
+     */
+    private static final int MAX_LINES_PER_MESSAGE = 30;
+
+    /**
+     * How long a command runs before the progress indicator shows, so quick commands do not flicker it.
+     */
+    private static final Duration PROGRESS_DELAY = Duration.millis(200);
+
     @FXML
-    private ScrollPane scrollPane;
-    @FXML
-    private VBox dialogContainer;
+    private ListView<Message> dialogList;
     @FXML
     private TextField userInput;
     @FXML
     private Button sendButton;
+    @FXML
+    private ProgressIndicator progressIndicator;
 
+    private final ExecutorService commandRunner = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "hokmah-commands");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final PauseTransition progressDelay = new PauseTransition(PROGRESS_DELAY);
     private Hokmah hokmah;
+    private int historyLimit = DEFAULT_HISTORY_LIMIT;
+    private int pendingCommandCount = 0;
 
     /**
-     * Initializes the scroll pane.
+     * Initializes the conversation list and the progress indicator.
      */
     @FXML
     public void initialize() {
-        scrollPane.vvalueProperty().bind(dialogContainer.heightProperty());
+        dialogList.setCellFactory(TranscriptCell::new);
+        dialogList.setFocusTraversable(false);
+        progressIndicator.setVisible(false);
+        progressDelay.setOnFinished(event -> progressIndicator.setVisible(true));
     }
 
     /**
-     * Injects the Hokmah instance
+     * Injects the Hokmah instance and shows its reminders in the conversation.
      */
     public void setHokmah(Hokmah h) {
         this.hokmah = h;
+        hokmah.addReminderHandler(messageLines -> Platform.runLater(() -> showReplies(messageLines)));
     }
 
     /**
-     * Creates two dialog boxes, one echoing user input and the other containing Duke's reply and then appends them to
-     * the dialog container. Clears the user input after processing.
+     * Sets how many messages the conversation keeps. The oldest messages are dropped beyond it.
+     *
+     * @param historyLimit Number of messages kept
+     */
+    public void setHistoryLimit(int historyLimit) {
+        assert historyLimit > 0 : "History limit must be positive";
+        this.historyLimit = historyLimit;
+        trimHistory();
+    }
+
+    /**
+     * Shows the user input in the conversation right away and runs it in the background.
+     * Hokmah's reply is shown once the command and every command sent before it are done.
      */
     @FXML
-    private void handleUserInput() throws InterruptedException {
+    private void handleUserInput() {
         String input = userInput.getText().trim();
-        String[] responses = hokmah.getResponse(input);
-        dialogContainer.getChildren().addAll(
-                DialogBoxController.getUserDialog(input)
-        );
-
-        for (String response : responses) {
-            dialogContainer.getChildren().add(DialogBoxController.getHokmahDialog(response));
-        }
         userInput.clear();
+        showMessages(List.of(input), true);
 
+        commandStarted();
+        CompletableFuture.supplyAsync(() -> hokmah.getResponse(input), commandRunner)
+                .whenComplete((responses, error) -> Platform.runLater(() -> {
+                    commandFinished();
+                    if (error != null) {
+                        Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                        String failure = "Something went wrong while running " + input + ": " + cause;
+                        System.out.println(failure);
+                        showReplies(new String[]{failure});
+                        return;
+                    }
+                    handleResponse(input, responses);
+                }));
+    }
+
+    /**
+     * Shows Hokmah's reply, and exits or opens the help window if the command asked for it.
+     */
+    private void handleResponse(String input, String[] responses) {
+        showReplies(responses);
 
         if (Arrays.asList(Hokmah.EXIT_COMMANDS).contains(input)) {
             new Timer().schedule(new TimerTask() {
@@ -72,11 +134,9 @@ public class MainWindowController extends AnchorPane {
 
         if (input.equals("help")) {
             if (HelpWindowController.isShown()) {
-                dialogContainer.getChildren().add(
-                        DialogBoxController.getHokmahDialog("""
+                showReplies(new String[]{"""
                                 Wait... You already have the help window open!
-                                Go look for it!""")
-                );
+                                Go look for it!"""});
                 return;
             }
 
@@ -88,9 +148,72 @@ public class MainWindowController extends AnchorPane {
      * Shows a welcome message when the application starts.
      */
     public void showWelcomeMessage() {
-        for (String response : hokmah.getWelcomeMessage()) {
-            dialogContainer.getChildren().add(DialogBoxController.getHokmahDialog(response));
+        showReplies(hokmah.getWelcomeMessage());
+    }
+
+    private void commandStarted() {
+        pendingCommandCount++;
+        if (pendingCommandCount == 1) {
+            progressDelay.playFromStart();
+        }
+    }
+
+    /**
+     * Hides the progress indicator once a command is done, restarting its delay if more commands are waiting.
+     */
+    private void commandFinished() {
+        pendingCommandCount--;
+        progressIndicator.setVisible(false);
+        if (pendingCommandCount > 0) {
+            progressDelay.playFromStart();
+        } else {
+            progressDelay.stop();
+        }
+    }
+
+    private void showReplies(String[] responses) {
+        List<String> messages = new ArrayList<>();
+        for (String response : responses) {
+            messages.addAll(splitLongMessage(response));
+        }
+        showMessages(messages, false);
+    }
+
+    /**
+     * Adds messages to the end of the conversation, drops the oldest ones beyond the limit and scrolls to the end.
+     */
+    private void showMessages(List<String> texts, boolean isUser) {
+        ObservableList<Message> messages = dialogList.getItems();
+        List<Message> added = new ArrayList<>(texts.size());
+        for (String text : texts) {
+            added.add(new Message(text, isUser));
+        }
+        messages.addAll(added);
+        trimHistory();
+        dialogList.scrollTo(messages.size() - 1);
+    }
+
+    private void trimHistory() {
+        ObservableList<Message> messages = dialogList.getItems();
+        if (messages.size() > historyLimit) {
+            messages.remove(0, messages.size() - historyLimit);
+        }
+    }
+
+    /**
+     * Splits a response into parts of at most {@link #MAX_LINES_PER_MESSAGE} lines.
+     */
+    private static List<String> splitLongMessage(String response) {
+        String[] lines = response.split("\n", -1);
+        if (lines.length <= MAX_LINES_PER_MESSAGE) {
+            return List.of(response);
+        }
+
+        List<String> parts = new ArrayList<>();
+        for (int start = 0; start < lines.length; start += MAX_LINES_PER_MESSAGE) {
+            int end = Math.min(start + MAX_LINES_PER_MESSAGE, lines.length);
+            parts.add(String.join("\n", Arrays.asList(lines).subList(start, end)));
         }
-        ;
+        return parts;
     }
 }
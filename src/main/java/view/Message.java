@@ -0,0 +1,10 @@
+package view;
+
+/**
+ * One message of the conversation shown in the main window.
+ *
+ * @param text   Text of the message
+ * @param isUser Whether the user sent the message, rather than Hokmah
+ */
+record Message(String text, boolean isUser) {
+}
@@ -0,0 +1,36 @@
+package view;
+
+import javafx.scene.control.ContentDisplay;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+
+/**
+ * Cell of the conversation list. Each cell keeps one dialog box and refills it with whatever message
+ * scrolls into it, so only the visible messages ever have nodes.
+ */
+class TranscriptCell extends ListCell<Message> {
+    /**
+     * Room left for the scroll bar and the cell's padding.
+     */
+    private static final double SIDE_SPACE = 20;
+
+    private final DialogBoxController dialogBox = new DialogBoxController();
+
+    TranscriptCell(ListView<Message> listView) {
+        dialogBox.prefWidthProperty().bind(listView.widthProperty().subtract(SIDE_SPACE));
+        dialogBox.setMaxWidth(USE_PREF_SIZE);
+        setContentDisplay(ContentDisplay.GRAPHIC_ONLY);
+    }
+
+    @Override
+    protected void updateItem(Message message, boolean isEmpty) {
+        super.updateItem(message, isEmpty);
+        if (isEmpty || message == null) {
+            setGraphic(null);
+            return;
+        }
+
+        dialogBox.setMessage(message);
+        setGraphic(dialogBox);
+    }
+}
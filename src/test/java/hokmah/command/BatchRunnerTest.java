@@ -0,0 +1,81 @@
+package hokmah.command;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import hokmah.data.DurabilityPolicy;
+import hokmah.data.SaveHandler;
+import hokmah.task.Task;
+import hokmah.task.TaskList;
+
+class BatchRunnerTest {
+    private Path tempDir;
+    private Path saveFile;
+    private TaskList taskList;
+    private SaveHandler saveHandler;
+    private InputHandler inputHandler;
+
+    @BeforeEach
+    void setUp(@TempDir Path tempDir) throws Exception {
+        this.tempDir = tempDir;
+        saveFile = tempDir.resolve("test.txt");
+        taskList = new TaskList();
+        saveHandler = new SaveHandler(saveFile.toString());
+        saveHandler.setJournaling(true);
+        saveHandler.setDurabilityPolicy(DurabilityPolicy.INTERVAL, SaveHandler.DEFAULT_FLUSH_INTERVAL_MILLIS);
+        inputHandler = new InputHandler(new CommandHandler(taskList, saveHandler, new MessageHandler()));
+    }
+
+    @Test
+    void testRunKeepsEveryChange() throws Exception {
+        List<String> script = new ArrayList<>();
+        script.add("# onboarding");
+        for (int i = 0; i < 1000; i++) {
+            script.add("todo Task " + i);
+        }
+        script.add("");
+        script.add("mark 1");
+        script.add("delete 2");
+        Path scriptFile = tempDir.resolve("script.txt");
+        Files.write(scriptFile, script);
+
+        BatchRunner batchRunner = new BatchRunner(inputHandler, taskList, saveHandler);
+        batchRunner.setCheckpointInterval(300);
+        BatchRunner.Result result = batchRunner.run(scriptFile);
+
+        assertEquals(1002, result.commandCount());
+        assertEquals(0, result.failureCount());
+        assertEquals(999, taskList.size());
+        assertEquals(DurabilityPolicy.INTERVAL, saveHandler.getDurabilityPolicy());
+
+        List<Task> loaded = new SaveHandler(saveFile.toString()).loadFromFile();
+        assertEquals(999, loaded.size());
+        assertTrue(loaded.get(0).isDone());
+        assertEquals("Task 2", loaded.get(1).getName());
+    }
+
+    @Test
+    void testRunReportsFailuresAndStopsAtExit() throws Exception {
+        Path scriptFile = tempDir.resolve("script.txt");
+        Files.write(scriptFile, List.of("todo Read Book", "mark 5", "fly away", "run other.txt", "bye",
+                "todo Never Run"));
+
+        BatchRunner.Result result = new BatchRunner(inputHandler, taskList, saveHandler).run(scriptFile);
+
+        assertEquals(4, result.commandCount());
+        assertEquals(3, result.failureCount());
+        assertTrue(result.failures().get(0).startsWith("Line 2: "));
+        assertEquals("Line 3: Ooookay? Just what are you trying to do?", result.failures().get(1));
+        assertTrue(result.failures().get(2).startsWith("Line 4: "));
+        assertEquals(1, taskList.size());
+    }
+}
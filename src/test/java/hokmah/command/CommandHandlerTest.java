@@ -3,9 +3,12 @@ package hokmah.command;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -13,17 +16,19 @@ import org.junit.jupiter.api.io.TempDir;
 
 import hokmah.data.SaveHandler;
 import hokmah.exception.HokmahException;
+import hokmah.task.Task;
 import hokmah.task.TaskList;
 
 class CommandHandlerTest {
     private CommandHandler commandHandler;
     private TaskList taskList;
     private MessageHandler messageHandler;
+    private Path tempFile;
 
     @BeforeEach
     void setUp(@TempDir Path tempDir) {
         taskList = new TaskList();
-        Path tempFile = tempDir.resolve("test.txt");
+        tempFile = tempDir.resolve("test.txt");
         SaveHandler saveHandler = new SaveHandler(tempFile.toString());
         messageHandler = new MessageHandler();
         commandHandler = new CommandHandler(taskList, saveHandler, messageHandler);
@@ -92,9 +97,189 @@ class CommandHandlerTest {
         assertFalse(response[0].contains("2.[T][ ] Write Notes"));
     }
 
+    @Test
+    void testListPages() throws HokmahException {
+        for (int i = 1; i <= 5; i++) {
+            commandHandler.addTodo(new String[]{"todo", "Task " + i});
+        }
+        commandHandler.setPageSize(2);
+
+        String[] firstPage = commandHandler.showList(new String[]{"list"});
+        assertTrue(firstPage[1].startsWith("1.[T][ ] Task 1\n2.[T][ ] Task 2"));
+        assertEquals("Showing 1-2 of 5. Type 'more' for more.", firstPage[2]);
+
+        commandHandler.showList(new String[]{"list", "next"});
+        String[] lastPage = commandHandler.showList(new String[]{"list", "next"});
+        assertEquals("5.[T][ ] Task 5\n", lastPage[1]);
+        assertEquals(2, lastPage.length);
+        assertEquals(messageHandler.getNoMorePagesMessage()[0],
+                commandHandler.showList(new String[]{"list", "next"})[0]);
+    }
+
+    @Test
+    void testFindContinuesAcrossPages() throws HokmahException {
+        for (int i = 1; i <= 5; i++) {
+            commandHandler.addTodo(new String[]{"todo", "Task " + i});
+        }
+        commandHandler.addTodo(new String[]{"todo", "Other"});
+        commandHandler.setPageSize(2);
+
+        String[] firstPage = commandHandler.findCommand(new String[]{"find", "Task"});
+        assertEquals(2, firstPage.length);
+        assertEquals("Showing 1-2 of 5. Type 'more' for more.", firstPage[1]);
+
+        String[] secondPage = commandHandler.showNextPage();
+        assertTrue(secondPage[0].startsWith("Here are the matching tasks in your list:"));
+        assertTrue(secondPage[0].contains("3.[T][ ] Task 3\n4.[T][ ] Task 4"));
+        assertEquals("Showing 3-4 of 5. Type 'more' for more.", secondPage[1]);
+
+        String[] lastPage = commandHandler.showList(new String[]{"list", "next"});
+        assertEquals(1, lastPage.length);
+        assertTrue(lastPage[0].startsWith("Here are the matching tasks in your list:"));
+        assertTrue(lastPage[0].contains("5.[T][ ] Task 5"));
+        assertFalse(lastPage[0].contains("Other"));
+        assertEquals(messageHandler.getNoMorePagesMessage()[0], commandHandler.showNextPage()[0]);
+    }
+
+    @Test
+    void testDueTasksArePaged() throws HokmahException {
+        for (int day = 1; day <= 3; day++) {
+            commandHandler.addDeadline(new String[]{"deadline", "Report " + day + " /by 2024-10-0" + day + " 0900"});
+        }
+        commandHandler.setPageSize(2);
+
+        String[] firstPage = commandHandler.dueBetween(
+                new String[]{"dueBetween", "2024-10-01 0000 /to 2024-10-31 2359"});
+        assertTrue(firstPage[0].contains("Report 2"));
+        assertFalse(firstPage[0].contains("Report 3"));
+        assertTrue(firstPage[0].contains("That's 3 task(s)."));
+        assertEquals("Showing 1-2 of 3. Type 'more' for more.", firstPage[1]);
+
+        String[] lastPage = commandHandler.showNextPage();
+        assertTrue(lastPage[0].startsWith("Your tasks due between"));
+        assertTrue(lastPage[0].contains("Report 3"));
+        assertFalse(lastPage[0].contains("Report 1"));
+    }
+
+    @Test
+    void testDueBetween() throws HokmahException {
+        commandHandler.addDeadline(new String[]{"deadline", "Submit report /by 2024-10-10 2359"});
+        commandHandler.addDeadline(new String[]{"deadline", "Pay rent /by 2024-10-01 0900"});
+        commandHandler.addEvent(new String[]{"event", "Book fair /from 2024-10-05 1000 /to 2024-10-05 1800"});
+        commandHandler.addDeadline(new String[]{"deadline", "File taxes /by 2024-12-01 0900"});
+        String[] response = commandHandler.dueBetween(
+                new String[]{"dueBetween", "2024-10-01 0900 /to 2024-10-10 2359"});
+
+        assertTrue(response[0].contains("Your tasks due between"));
+        assertTrue(response[0].indexOf("Pay rent") < response[0].indexOf("Book fair"));
+        assertTrue(response[0].indexOf("Book fair") < response[0].indexOf("Submit report"));
+        assertFalse(response[0].contains("File taxes"));
+    }
+
+    @Test
+    void testBulkMarkAndDelete() throws HokmahException {
+        for (int i = 1; i <= 8; i++) {
+            commandHandler.addTodo(new String[]{"todo", "Task " + i});
+        }
+
+        String[] response = commandHandler.markTask(new String[]{"mark", "2-4,7"});
+        assertTrue(response[0].contains("these 4 tasks"));
+        assertTrue(taskList.get(6).isDone());
+
+        commandHandler.deleteTask(new String[]{"delete", "done"});
+        assertEquals(4, taskList.size());
+        assertEquals("Task 5", taskList.get(1).getName());
+
+        response = commandHandler.deleteTask(new String[]{"delete", "1,3-4"});
+        assertEquals(1, taskList.size());
+        assertEquals("Task 5", taskList.get(0).getName());
+        assertTrue(response[response.length - 1].contains("Now you have 1 tasks"));
+
+        assertThrows(HokmahException.class, () -> commandHandler.deleteTask(new String[]{"delete", "1-3"}));
+        assertThrows(HokmahException.class, () -> commandHandler.markTask(new String[]{"mark", "1-"}));
+    }
+
+    @Test
+    void testEmptySelectionSavesNothing() throws HokmahException {
+        String[] response = commandHandler.deleteTask(new String[]{"delete", "done"});
+        assertTrue(response[0].contains("None of your tasks matched"));
+        assertFalse(Files.exists(tempFile));
+
+        assertThrows(HokmahException.class, () -> commandHandler.undo());
+    }
+
+    @Test
+    void testUndoAndRedo() throws HokmahException {
+        for (int i = 1; i <= 5; i++) {
+            commandHandler.addTodo(new String[]{"todo", "Task " + i});
+        }
+        commandHandler.markTask(new String[]{"mark", "2"});
+        commandHandler.markTask(new String[]{"mark", "1-3"});
+        commandHandler.deleteTask(new String[]{"delete", "2,4-5"});
+        assertEquals(2, taskList.size());
+
+        String[] response = commandHandler.undo();
+        assertTrue(response[0].contains("deleting 3 tasks"));
+        assertEquals(5, taskList.size());
+        assertEquals("Task 4", taskList.get(3).getName());
+
+        response = commandHandler.undo();
+        assertTrue(response[0].contains("marking 2 tasks"));
+        assertFalse(taskList.get(0).isDone());
+        assertTrue(taskList.get(1).isDone());
+
+        commandHandler.redo();
+        commandHandler.redo();
+        assertEquals(2, taskList.size());
+        assertThrows(HokmahException.class, () -> commandHandler.redo());
+
+        commandHandler.undo();
+        commandHandler.undo();
+        commandHandler.undo();
+        commandHandler.undo();
+        assertEquals(4, taskList.size());
+        assertFalse(taskList.get(1).isDone());
+
+        List<Task> loaded = new SaveHandler(tempFile.toString()).loadFromFile();
+        assertEquals(taskList.getTaskArrayList().stream().map(Task::getSaveText).toList(),
+                loaded.stream().map(Task::getSaveText).toList());
+    }
+
+    @Test
+    void testFailedSaveKeepsUndoHistory() throws Exception {
+        commandHandler.addTodo(new String[]{"todo", "Task 1"});
+        commandHandler.addTodo(new String[]{"todo", "Task 2"});
+        Path blocker = Files.createDirectory(Path.of(tempFile + ".tmp"));
+
+        assertThrows(HokmahException.class, () -> commandHandler.undo());
+        assertEquals(2, taskList.size());
+        Files.delete(blocker);
+        commandHandler.undo();
+        assertEquals(1, taskList.size());
+
+        Files.createDirectory(blocker);
+        assertThrows(HokmahException.class, () -> commandHandler.redo());
+        assertEquals(1, taskList.size());
+        Files.delete(blocker);
+        commandHandler.redo();
+        assertEquals("Task 2", taskList.get(1).getName());
+    }
+
+    @Test
+    void testUndoRightAfterMark() throws HokmahException {
+        commandHandler.addTodo(new String[]{"todo", "Task 1"});
+        commandHandler.markTask(new String[]{"mark", "1"});
+
+        commandHandler.undo();
+        assertFalse(taskList.get(0).isDone());
+        commandHandler.redo();
+        assertTrue(taskList.get(0).isDone());
+    }
+
     @Test
     void testUnsupportedCommand() {
-        String[] response = commandHandler.unsupportedCommand();
+        HokmahException exception = assertThrows(HokmahException.class, () -> commandHandler.unsupportedCommand());
+        String[] response = exception.getMessageLines();
 
         assertNotNull(response);
         assertEquals(3, response.length);
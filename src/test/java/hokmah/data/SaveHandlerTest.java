@@ -0,0 +1,443 @@
+package hokmah.data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import hokmah.exception.HokmahException;
+import hokmah.task.Deadline;
+import hokmah.task.Event;
+import hokmah.task.RecurringTask;
+import hokmah.task.Task;
+import hokmah.task.ToDo;
+
+class SaveHandlerTest {
+    private Path tempFile;
+    private SaveHandler saveHandler;
+
+    @BeforeEach
+    void setUp(@TempDir Path tempDir) {
+        tempFile = tempDir.resolve("test.txt");
+        saveHandler = new SaveHandler(tempFile.toString());
+        saveHandler.setJournaling(true);
+    }
+
+    @Test
+    void testJournalReplay() throws Exception {
+        ArrayList<Task> tasks = new ArrayList<>();
+        addTask(tasks, new ToDo("Read Book"));
+        addTask(tasks, new Deadline("Return Book", LocalDateTime.of(2024, 10, 10, 23, 59)));
+        addTask(tasks, new ToDo("Write Notes"));
+
+        tasks.get(1).markDone();
+        saveHandler.saveMark(tasks, 1);
+        tasks.remove(0);
+        saveHandler.saveDelete(tasks, 0);
+
+        assertTrue(Files.exists(Path.of(tempFile + TaskJournal.JOURNAL_SUFFIX)));
+
+        ArrayList<Task> loaded = new SaveHandler(tempFile.toString()).loadFromFile();
+        assertEquals(2, loaded.size());
+        assertEquals("Return Book", loaded.get(0).getName());
+        assertTrue(loaded.get(0).isDone());
+        assertEquals("Write Notes", loaded.get(1).getName());
+    }
+
+    @Test
+    void testBulkJournalReplay() throws Exception {
+        ArrayList<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            addTask(tasks, new ToDo("Task " + i));
+        }
+
+        BitSet marked = new BitSet();
+        marked.set(0, 4);
+        marked.set(8);
+        marked.stream().forEach(index -> tasks.get(index).markDone());
+        saveHandler.saveMarkAll(tasks, marked);
+
+        BitSet deleted = new BitSet();
+        deleted.set(1, 3);
+        deleted.set(5);
+        for (int index = deleted.length() - 1; index >= 0; index = deleted.previousSetBit(index - 1)) {
+            tasks.remove(index);
+        }
+        saveHandler.saveDeleteAll(tasks, deleted);
+
+        ArrayList<Task> loaded = new SaveHandler(tempFile.toString()).loadFromFile();
+        assertEquals(tasks.size(), loaded.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            assertEquals(tasks.get(i).getSaveText(), loaded.get(i).getSaveText());
+        }
+        assertEquals("0-3,8", TaskJournal.encodeIndexes(marked));
+    }
+
+    @Test
+    void testInsertJournalReplay() throws Exception {
+        ArrayList<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            addTask(tasks, new ToDo("Task " + i));
+        }
+        saveHandler.saveToFile(tasks);
+
+        BitSet indexes = new BitSet();
+        indexes.set(0);
+        indexes.set(3, 5);
+        Task fifth = tasks.remove(4);
+        Task fourth = tasks.remove(3);
+        List<Task> removed = List.of(tasks.remove(0), fourth, fifth);
+        saveHandler.saveDeleteAll(tasks, indexes);
+        tasks.add(0, removed.get(0));
+        tasks.add(3, removed.get(1));
+        tasks.add(4, removed.get(2));
+        saveHandler.saveInsertAll(tasks, indexes, removed);
+
+        ArrayList<Task> loaded = new SaveHandler(tempFile.toString()).loadFromFile();
+        assertEquals(List.of("Task 0", "Task 1", "Task 2", "Task 3", "Task 4", "Task 5"),
+                loaded.stream().map(Task::getName).toList());
+    }
+
+    @Test
+    void testFullSaveClearsJournal() throws Exception {
+        ArrayList<Task> tasks = new ArrayList<>();
+        addTask(tasks, new ToDo("Read Book"));
+
+        saveHandler.saveToFile(tasks);
+
+        assertFalse(Files.exists(Path.of(tempFile + TaskJournal.JOURNAL_SUFFIX)));
+        assertEquals(1, new SaveHandler(tempFile.toString()).loadFromFile().size());
+    }
+
+    @Test
+    void testCompaction() throws Exception {
+        saveHandler.setCompactionThreshold(3);
+        ArrayList<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            addTask(tasks, new ToDo("Task " + i));
+        }
+        saveHandler.awaitCompaction();
+
+        tasks.get(4).markDone();
+        saveHandler.saveMark(tasks, 4);
+        saveHandler.awaitCompaction();
+
+        ArrayList<Task> loaded = new SaveHandler(tempFile.toString()).loadFromFile();
+        assertEquals(5, loaded.size());
+        assertEquals("Task 0", loaded.get(0).getName());
+        assertTrue(loaded.get(4).isDone());
+        assertTrue(Files.readString(tempFile).contains("Task 2"));
+    }
+
+    @Test
+    void testFailedCompactionIsReported() throws Exception {
+        Files.createDirectories(Path.of(tempFile + ".compact.tmp"));
+        saveHandler.setCompactionThreshold(3);
+        ArrayList<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            addTask(tasks, new ToDo("Task " + i));
+        }
+        saveHandler.awaitCompaction();
+
+        assertThrows(HokmahException.class, () -> addTask(tasks, new ToDo("Task 3")));
+        assertEquals(3, new SaveHandler(tempFile.toString()).loadFromFile().size());
+    }
+
+    @Test
+    void testWrongTaskCountFallsBackToPreviousGeneration() throws Exception {
+        ArrayList<Task> tasks = new ArrayList<>();
+        tasks.add(new ToDo("Read Book"));
+        saveHandler.saveToFile(tasks);
+        tasks.add(new ToDo("Write Notes"));
+        saveHandler.saveToFile(tasks);
+
+        String saved = Files.readString(tempFile);
+        Files.writeString(tempFile, saved.replaceAll("\\|2\n$", "|3\n"));
+
+        ArrayList<Task> loaded = new SaveHandler(tempFile.toString()).loadFromFile();
+        assertEquals(1, loaded.size());
+    }
+
+    @Test
+    void testDamagedSaveFallsBackToPreviousGeneration() throws Exception {
+        ArrayList<Task> tasks = new ArrayList<>();
+        tasks.add(new ToDo("Read Book"));
+        saveHandler.saveToFile(tasks);
+        tasks.add(new ToDo("Write Notes"));
+        saveHandler.saveToFile(tasks);
+
+        String saved = Files.readString(tempFile);
+        Files.writeString(tempFile, saved.replace("Write Notes", "Wrote Notes"));
+
+        ArrayList<Task> loaded = new SaveHandler(tempFile.toString()).loadFromFile();
+        assertEquals(1, loaded.size());
+        assertEquals("Read Book", loaded.get(0).getName());
+
+        // Saving again must not rotate the damaged file over the intact backup
+        loaded.add(new ToDo("Write Essay"));
+        new SaveHandler(tempFile.toString()).saveToFile(loaded);
+        assertTrue(Files.exists(Path.of(tempFile + SnapshotFile.DAMAGED_SUFFIX)));
+        assertEquals(1, new SaveHandler(tempFile + SnapshotFile.BACKUP_SUFFIX).loadFromFile().size());
+    }
+
+    @Test
+    void testJournalOfDamagedSaveIsNotReplayedOntoBackup() throws Exception {
+        ArrayList<Task> tasks = new ArrayList<>();
+        tasks.add(new ToDo("Read Book"));
+        saveHandler.saveToFile(tasks);
+        addTask(tasks, new ToDo("Write Notes"));
+        addTask(tasks, new ToDo("Return Book"));
+        saveHandler.saveToFile(tasks);
+
+        tasks.remove(0);
+        saveHandler.saveDelete(tasks, 0);
+
+        String saved = Files.readString(tempFile);
+        Files.writeString(tempFile, saved.replace("Write Notes", "Wrote Notes"));
+
+        ArrayList<Task> loaded = new SaveHandler(tempFile.toString()).loadFromFile();
+        assertEquals(1, loaded.size());
+        assertEquals("Read Book", loaded.get(0).getName());
+        assertTrue(Files.exists(Path.of(tempFile + TaskJournal.JOURNAL_SUFFIX + TaskJournal.STALE_SUFFIX)));
+    }
+
+    @Test
+    void testLoadFileWithoutChecksum() throws Exception {
+        Files.writeString(tempFile, "T|1|Read Book\nD|0|Return Book|2024-10-10 2359\n");
+
+        ArrayList<Task> loaded = saveHandler.loadFromFile();
+        assertEquals(2, loaded.size());
+        assertTrue(loaded.get(0).isDone());
+        assertEquals(LocalDateTime.of(2024, 10, 10, 23, 59), loaded.get(1).getTimeEnd());
+    }
+
+    @Test
+    void testBinaryRoundTrip() throws Exception {
+        ArrayList<Task> tasks = new ArrayList<>();
+        tasks.add(new ToDo("Read Book ✨"));
+        tasks.add(new Deadline("Return Book", LocalDateTime.of(2024, 10, 10, 23, 59)));
+        tasks.add(new Event("Book Fair", LocalDateTime.of(2024, 11, 1, 14, 0), LocalDateTime.of(2024, 11, 1, 16, 0)));
+        tasks.get(1).markDone();
+
+        saveHandler.setFormat(SaveFormat.BINARY);
+        saveHandler.saveToFile(tasks);
+
+        ArrayList<Task> loaded = new SaveHandler(tempFile.toString()).loadFromFile();
+        assertEquals(3, loaded.size());
+        assertEquals("Read Book ✨", loaded.get(0).getName());
+        assertTrue(loaded.get(1).isDone());
+        assertEquals(LocalDateTime.of(2024, 10, 10, 23, 59), loaded.get(1).getTimeEnd());
+        assertEquals(LocalDateTime.of(2024, 11, 1, 14, 0), loaded.get(2).getTimeStart());
+        assertEquals(tasks.get(2).toString(), loaded.get(2).toString());
+    }
+
+    @Test
+    void testRecurringTaskIsSavedAsOneRule() throws Exception {
+        ArrayList<Task> tasks = new ArrayList<>();
+        tasks.add(new RecurringTask("Gym", LocalDateTime.of(2024, 10, 1, 18, 0),
+                RecurringTask.Frequency.WEEKLY, LocalDateTime.of(2024, 12, 31, 23, 59)));
+        tasks.add(new RecurringTask("Pay rent", LocalDateTime.of(2024, 1, 31, 9, 0),
+                RecurringTask.Frequency.MONTHLY, null));
+        tasks.get(1).markDone();
+
+        saveHandler.saveToFile(tasks);
+        assertEquals(2, Files.readAllLines(tempFile).stream().filter(line -> line.startsWith("R|")).count());
+        ArrayList<Task> loaded = new SaveHandler(tempFile.toString()).loadFromFile();
+        assertEquals("R|0|Gym|2024-10-01 1800|WEEKLY|2024-12-31 2359", loaded.get(0).getSaveText());
+        assertEquals("R|1|Pay rent|2024-01-31 0900|MONTHLY", loaded.get(1).getSaveText());
+
+        saveHandler.setFormat(SaveFormat.BINARY);
+        saveHandler.saveToFile(tasks);
+        loaded = new SaveHandler(tempFile.toString()).loadFromFile();
+        assertEquals(tasks.get(0).getSaveText(), loaded.get(0).getSaveText());
+        assertEquals(tasks.get(1).getSaveText(), loaded.get(1).getSaveText());
+    }
+
+    @Test
+    void testConvertBetweenFormats() throws Exception {
+        Files.writeString(tempFile, "T|1|Read Book\nD|0|Return Book|2024-10-10 2359\n");
+        String binaryFile = tempFile.resolveSibling("binary.dat").toString();
+        String textFile = tempFile.resolveSibling("text.txt").toString();
+
+        SaveHandler.convert(tempFile.toString(), binaryFile, SaveFormat.BINARY);
+        assertEquals('H', Files.readAllBytes(Path.of(binaryFile))[0]);
+
+        SaveHandler.convert(binaryFile, textFile, SaveFormat.TEXT);
+        ArrayList<Task> loaded = new SaveHandler(textFile).loadFromFile();
+        assertEquals(2, loaded.size());
+        assertEquals("D|0|Return Book|2024-10-10 2359", loaded.get(1).getSaveText());
+    }
+
+    @Test
+    void testLoadLargeFile() throws Exception {
+        StringBuilder saveText = new StringBuilder();
+        int count = 0;
+        while (saveText.length() < 1 << 20) {
+            saveText.append("E|").append(count % 2).append("|Event ").append(count)
+                    .append("|2024-11-01 1400|2024-11-01 1600\r\n");
+            count++;
+        }
+        Files.writeString(tempFile, saveText);
+
+        ArrayList<Task> loaded = saveHandler.loadFromFile();
+        assertEquals(count, loaded.size());
+        assertEquals("Event 1", loaded.get(1).getName());
+        assertTrue(loaded.get(1).isDone());
+        assertEquals(LocalDateTime.of(2024, 11, 1, 16, 0), loaded.get(count - 1).getTimeEnd());
+
+        saveHandler.saveToFile(loaded);
+        assertTrue(Files.exists(Path.of(tempFile + SnapshotFile.BACKUP_SUFFIX)));
+    }
+
+    @Test
+    void testParallelLoadKeepsOrder() throws Exception {
+        ArrayList<Task> tasks = new ArrayList<>();
+        int bytes = 0;
+        for (int i = 0; bytes < BufferTaskLoader.PARALLEL_THRESHOLD + 1024; i++) {
+            Task task = i % 3 == 0
+                    ? new Deadline("Deadline " + i, LocalDateTime.of(2024, 10, 10, 23, 59).plusMinutes(i))
+                    : new ToDo("Todo " + i);
+            tasks.add(task);
+            bytes += task.getSaveText().length() + 1;
+        }
+        saveHandler.saveToFile(tasks);
+
+        ArrayList<Task> loaded = saveHandler.loadFromFile();
+        saveHandler.setParallelLoading(false);
+        ArrayList<Task> loadedSequentially = saveHandler.loadFromFile();
+
+        assertEquals(tasks.size(), loaded.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            assertEquals(tasks.get(i).getSaveText(), loaded.get(i).getSaveText());
+            assertEquals(loadedSequentially.get(i).getSaveText(), loaded.get(i).getSaveText());
+        }
+    }
+
+    @Test
+    void testEveryCommandWritesBeforeReturning() throws Exception {
+        saveHandler.setDurabilityPolicy(DurabilityPolicy.EVERY_COMMAND, 0);
+        ArrayList<Task> tasks = new ArrayList<>();
+        addTask(tasks, new ToDo("Read Book"));
+        tasks.get(0).markDone();
+        saveHandler.saveMark(tasks, 0);
+
+        ArrayList<Task> loaded = new SaveHandler(tempFile.toString()).loadFromFile();
+        assertEquals(1, loaded.size());
+        assertTrue(loaded.get(0).isDone());
+        saveHandler.close();
+    }
+
+    @Test
+    void testOnExitWritesWhenClosed() throws Exception {
+        saveHandler.setDurabilityPolicy(DurabilityPolicy.ON_EXIT, 0);
+        ArrayList<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            addTask(tasks, new ToDo("Todo " + i));
+        }
+
+        assertEquals(0, new SaveHandler(tempFile.toString()).loadFromFile().size());
+
+        saveHandler.close();
+        ArrayList<Task> loaded = new SaveHandler(tempFile.toString()).loadFromFile();
+        assertEquals(50, loaded.size());
+        assertEquals("Todo 49", loaded.get(49).getName());
+    }
+
+    @Test
+    void testWriteBehindFullSaves() throws Exception {
+        saveHandler.setJournaling(false);
+        saveHandler.setDurabilityPolicy(DurabilityPolicy.INTERVAL, 10);
+        ArrayList<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            addTask(tasks, new ToDo("Todo " + i));
+        }
+        saveHandler.close();
+
+        ArrayList<Task> loaded = new SaveHandler(tempFile.toString()).loadFromFile();
+        assertEquals(20, loaded.size());
+        assertFalse(Files.exists(Path.of(tempFile + TaskJournal.JOURNAL_SUFFIX)));
+    }
+
+    @Test
+    void testSegmentedSaveAfterSavingElsewhereKeepsChanges() throws Exception {
+        saveHandler.setFormat(SaveFormat.SEGMENTED);
+        ArrayList<Task> tasks = new ArrayList<>();
+        tasks.add(new ToDo("Read Book"));
+        tasks.add(new ToDo("Write Notes"));
+        saveHandler.saveToFile(tasks);
+
+        tasks.get(1).markDone();
+        saveHandler.saveToFile(tasks, tempFile + ".copy");
+        saveHandler.saveToFile(tasks);
+
+        assertTrue(new SaveHandler(tempFile.toString()).loadFromFile().get(1).isDone());
+        assertTrue(new SaveHandler(tempFile + ".copy").loadFromFile().get(1).isDone());
+    }
+
+    @Test
+    void testDamagedSegmentManifestIsReported() throws Exception {
+        saveHandler.setFormat(SaveFormat.SEGMENTED);
+        ArrayList<Task> tasks = new ArrayList<>();
+        tasks.add(new ToDo("Read Book"));
+        saveHandler.saveToFile(tasks);
+
+        Files.writeString(tempFile, Files.readString(tempFile).replace(SegmentStore.HEADER + "0|2",
+                SegmentStore.HEADER + "9|2"));
+        SaveHandler reopened = new SaveHandler(tempFile.toString());
+        reopened.setFormat(SaveFormat.SEGMENTED);
+        ArrayList<Task> loaded = reopened.loadFromFile();
+        assertEquals(1, loaded.size());
+
+        // Identifiers still continue after the loaded tasks, so the new task gets its own
+        loaded.add(new ToDo("Write Notes"));
+        reopened.saveToFile(loaded);
+        assertEquals(2, new SaveHandler(tempFile.toString()).loadFromFile().size());
+    }
+
+    @Test
+    void testSegmentedSaveRewritesOnlyChangedSegments() throws Exception {
+        saveHandler.setFormat(SaveFormat.SEGMENTED);
+        ArrayList<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < SegmentStore.SEGMENT_SIZE * 8; i++) {
+            tasks.add(new ToDo("Todo " + i));
+        }
+        saveHandler.saveToFile(tasks);
+        assertEquals(8, saveHandler.getSegmentsWritten());
+
+        tasks.get(300).markDone();
+        saveHandler.saveMark(tasks, 300);
+        assertEquals(1, saveHandler.getSegmentsWritten());
+
+        tasks.remove(1000);
+        saveHandler.saveDelete(tasks, 1000);
+        assertEquals(1, saveHandler.getSegmentsWritten());
+
+        addTask(tasks, new Deadline("Return Book", LocalDateTime.of(2024, 10, 10, 23, 59)));
+        assertEquals(1, saveHandler.getSegmentsWritten());
+
+        ArrayList<Task> loaded = new SaveHandler(tempFile.toString()).loadFromFile();
+        assertEquals(tasks.size(), loaded.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            assertEquals(tasks.get(i).getId(), loaded.get(i).getId());
+            assertEquals(tasks.get(i).getSaveText(), loaded.get(i).getSaveText());
+            assertFalse(loaded.get(i).isDirty());
+        }
+        assertTrue(loaded.get(300).isDone());
+    }
+
+    private void addTask(ArrayList<Task> tasks, Task task) throws HokmahException {
+        tasks.add(task);
+        saveHandler.saveAdd(tasks, task);
+    }
+}
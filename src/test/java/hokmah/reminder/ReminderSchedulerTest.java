@@ -0,0 +1,87 @@
+package hokmah.reminder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import hokmah.task.Deadline;
+import hokmah.task.Event;
+import hokmah.task.RecurringTask;
+import hokmah.task.Task;
+import hokmah.task.TaskList;
+import hokmah.task.ToDo;
+
+class ReminderSchedulerTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 10, 1, 9, 0);
+
+    @Test
+    void testRemindersFollowTaskList() {
+        Clock clock = Clock.fixed(NOW.toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        ReminderScheduler scheduler = new ReminderScheduler(clock, Duration.ofMinutes(30));
+        List<Task> reminded = new ArrayList<>();
+        scheduler.addListener(reminded::add);
+
+        TaskList taskList = new TaskList();
+        taskList.addListener(scheduler);
+        Deadline report = new Deadline("Submit report", NOW.plusHours(2));
+        Event meeting = new Event("Meeting", NOW.plusHours(1), NOW.plusHours(3));
+        taskList.add(report);
+        taskList.add(meeting);
+        taskList.add(new ToDo("Read Book"));
+        taskList.add(new Deadline("Already late", NOW.minusHours(1)));
+        taskList.add(new Deadline("Cancelled", NOW.plusHours(4)));
+        assertEquals(3, scheduler.getPendingCount());
+
+        taskList.delete(4);
+        taskList.mark(0);
+        assertEquals(1, scheduler.getPendingCount());
+
+        scheduler.fireDue(millisAt(NOW.plusMinutes(29)));
+        assertEquals(List.of(), reminded);
+        scheduler.fireDue(millisAt(NOW.plusMinutes(30)));
+        assertEquals(List.of(meeting), reminded);
+
+        taskList.unmark(0);
+        scheduler.fireDue(millisAt(NOW.plusHours(5)));
+        assertEquals(List.of(meeting, report), reminded);
+        assertEquals(0, scheduler.getPendingCount());
+    }
+
+    @Test
+    void testRecurringTasksAreRemindedOfEachOccurrence() {
+        Clock clock = Clock.fixed(NOW.toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        ReminderScheduler scheduler = new ReminderScheduler(clock, Duration.ofMinutes(30));
+        List<LocalDateTime> reminded = new ArrayList<>();
+        scheduler.addListener(task -> reminded.add(task.getTimeEnd()));
+
+        TaskList taskList = new TaskList();
+        taskList.addListener(scheduler);
+        LocalDateTime first = NOW.plusHours(1);
+        taskList.add(new RecurringTask("Standup", first, RecurringTask.Frequency.DAILY, first.plusDays(5)));
+        assertEquals(1, scheduler.getPendingCount());
+
+        scheduler.fireDue(millisAt(first.minusMinutes(30)));
+        assertEquals(List.of(first), reminded);
+        assertEquals(1, scheduler.getPendingCount());
+
+        // The third occurrence is missed while the scheduler is behind, so it is skipped
+        scheduler.fireDue(millisAt(first.plusDays(3).minusMinutes(10)));
+        scheduler.fireDue(millisAt(first.plusDays(3).minusMinutes(9)));
+        assertEquals(List.of(first, first.plusDays(1), first.plusDays(3)), reminded);
+        assertEquals(1, scheduler.getPendingCount());
+
+        taskList.mark(0);
+        assertEquals(0, scheduler.getPendingCount());
+    }
+
+    private static long millisAt(LocalDateTime time) {
+        return time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+}
@@ -0,0 +1,49 @@
+package hokmah.reminder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class TimingWheelTest {
+    @Test
+    void testItemsExpireAtTheirTick() {
+        TimingWheel<Long> wheel = new TimingWheel<>(1, 4, 3, 0);
+        Random random = new Random(3);
+        List<TimingWheel.Timeout<Long>> timeouts = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            long deadline = random.nextInt(200);
+            timeouts.add(wheel.schedule(deadline, deadline));
+        }
+
+        // Some deadlines are beyond the top level, which covers 64 ticks here
+        for (int i = 0; i < timeouts.size(); i += 3) {
+            wheel.cancel(timeouts.get(i));
+        }
+        int expected = wheel.size();
+
+        int expired = 0;
+        for (long now = 0; now < 200; now++) {
+            for (long deadline : wheel.advance(now)) {
+                assertEquals(now, deadline);
+                expired++;
+            }
+        }
+        assertEquals(expected, expired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void testOverdueItemsExpireOnNextAdvance() {
+        TimingWheel<String> wheel = new TimingWheel<>(1000, 64, 4, 0);
+        wheel.advance(5000);
+        wheel.schedule("late", 1000);
+
+        assertEquals(List.of("late"), wheel.advance(5000));
+        assertTrue(wheel.advance(6000).isEmpty());
+    }
+}
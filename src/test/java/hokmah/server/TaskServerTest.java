@@ -0,0 +1,139 @@
+package hokmah.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import hokmah.command.CommandHandler;
+import hokmah.command.InputHandler;
+import hokmah.command.MessageHandler;
+import hokmah.data.SaveHandler;
+import hokmah.task.TaskList;
+
+class TaskServerTest {
+    private TaskList taskList;
+    private TaskServer server;
+
+    @BeforeEach
+    void setUp(@TempDir Path tempDir) throws IOException {
+        taskList = new TaskList();
+        SaveHandler saveHandler = new SaveHandler(tempDir.resolve("test.txt").toString());
+        saveHandler.setJournaling(true);
+        server = new TaskServer(() -> {
+            CommandHandler commandHandler = new CommandHandler(taskList, saveHandler, new MessageHandler());
+            commandHandler.setBatchAllowed(false);
+            return new InputHandler(commandHandler);
+        }, 0);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    void testClientsShareTasks() throws IOException {
+        try (Client first = new Client(server.getPort()); Client second = new Client(server.getPort())) {
+            assertTrue(first.send("todo Read Book").get(0).contains("I've added this task"));
+            assertTrue(String.join("\n", second.send("list")).contains("1.[T][ ] Read Book"));
+
+            second.send("bye");
+            assertNull(second.in.readLine());
+            assertTrue(String.join("\n", first.send("find Book")).contains("Read Book"));
+        }
+    }
+
+    @Test
+    void testClientsHaveTheirOwnUndoHistory() throws IOException {
+        try (Client first = new Client(server.getPort()); Client second = new Client(server.getPort())) {
+            first.send("todo Read Book");
+            assertTrue(String.join("\n", second.send("undo")).contains("nothing to undo"));
+
+            second.send("todo Write Essay");
+            assertTrue(String.join("\n", first.send("undo")).contains("Someone else changed the list"));
+            assertEquals(2, taskList.size());
+        }
+    }
+
+    @Test
+    void testScriptsCannotBeRunRemotely() throws IOException {
+        try (Client client = new Client(server.getPort())) {
+            assertTrue(String.join("\n", client.send("run tasks.txt")).contains("over the network"));
+        }
+    }
+
+    @Test
+    void testConcurrentClientsDoNotLoseChanges() throws Exception {
+        int clientCount = 8;
+        int commandCount = 50;
+        ExecutorService pool = Executors.newFixedThreadPool(clientCount);
+        List<Future<?>> results = new ArrayList<>();
+        for (int c = 0; c < clientCount; c++) {
+            int clientNumber = c;
+            results.add(pool.submit(() -> {
+                try (Client client = new Client(server.getPort())) {
+                    for (int i = 0; i < commandCount; i++) {
+                        client.send("todo Client " + clientNumber + " task " + i);
+                        client.send("find Client " + clientNumber);
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> result : results) {
+            result.get();
+        }
+        pool.shutdown();
+
+        assertEquals(clientCount * commandCount, taskList.size());
+    }
+
+    /**
+     * Test client that sends a command and reads its response up to the end marker.
+     */
+    private static class Client implements AutoCloseable {
+        private final Socket socket;
+        private final BufferedReader in;
+        private final PrintWriter out;
+
+        Client(int port) throws IOException {
+            socket = new Socket(InetAddress.getLoopbackAddress(), port);
+            in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8);
+        }
+
+        List<String> send(String command) throws IOException {
+            out.println(command);
+            List<String> lines = new ArrayList<>();
+            for (String line = in.readLine(); !TaskServer.END_OF_RESPONSE.equals(line); line = in.readLine()) {
+                lines.add(line.startsWith(TaskServer.END_OF_RESPONSE) ? line.substring(1) : line);
+            }
+            return lines;
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+}
@@ -0,0 +1,383 @@
+package hokmah.task;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.SortedMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class TaskListTest {
+    @Test
+    void testIdsFollowInsertionOrder() {
+        TaskList taskList = new TaskList();
+        ToDo first = new ToDo("Read Book");
+        ToDo second = new ToDo("Write Notes");
+        taskList.add(first);
+        taskList.add(second);
+
+        assertEquals(1, first.getId());
+        assertEquals(2, second.getId());
+        assertSame(second, taskList.getById(2));
+
+        taskList.delete(first);
+        assertNull(taskList.getById(1));
+        assertSame(second, taskList.get(0));
+        assertEquals(0, taskList.indexOf(second));
+    }
+
+    @Test
+    void testMatchesArrayList() {
+        TaskList taskList = new TaskList();
+        ArrayList<Task> expected = new ArrayList<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 5000; i++) {
+            if (expected.isEmpty() || random.nextInt(3) > 0) {
+                ToDo task = new ToDo("Todo " + i);
+                taskList.add(task);
+                expected.add(task);
+            } else {
+                int index = random.nextInt(expected.size());
+                assertSame(expected.remove(index), taskList.delete(index));
+            }
+        }
+
+        assertEquals(expected.size(), taskList.size());
+        assertEquals(expected, taskList.getTaskArrayList());
+        for (int i = 0; i < expected.size(); i += 7) {
+            assertSame(expected.get(i), taskList.get(i));
+            assertEquals(i, taskList.indexOf(expected.get(i)));
+            assertSame(expected.get(i), taskList.getById(expected.get(i).getId()));
+        }
+    }
+
+    @Test
+    void testDeleteAllMatchesArrayList() {
+        TaskList taskList = new TaskList();
+        ArrayList<Task> expected = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            ToDo task = new ToDo("Todo " + i);
+            taskList.add(task);
+            expected.add(task);
+        }
+
+        Random random = new Random(7);
+        BitSet indexes = new BitSet();
+        indexes.set(100, 900);
+        for (int i = 0; i < 200; i++) {
+            indexes.set(random.nextInt(expected.size()));
+        }
+        List<Task> removedExpected = new ArrayList<>();
+        for (int index = indexes.length() - 1; index >= 0; index = indexes.previousSetBit(index - 1)) {
+            removedExpected.add(0, expected.remove(index));
+        }
+
+        assertEquals(removedExpected, taskList.deleteAll(indexes));
+        assertEquals(expected, taskList.getTaskArrayList());
+        assertNull(taskList.getById(removedExpected.get(0).getId()));
+        assertEquals(List.of(expected.get(0)), taskList.find("Todo 0"));
+        for (int i = 0; i < expected.size(); i += 13) {
+            assertEquals(i, taskList.indexOf(expected.get(i)));
+        }
+    }
+
+    @Test
+    void testFindMatchesSubstringSearch() {
+        TaskList taskList = new TaskList();
+        String[] names = {"Team meeting", "meet Alice", "Read Book", "return book-club form", "Meeting notes",
+            "Émile's café", "buy 2 eggs", "call mum", "MEETUP", "c++ homework"};
+        for (String name : names) {
+            taskList.add(new ToDo(name));
+        }
+        taskList.delete(1);
+
+        String[] keywords = {"meet", "eet", "Meet", "ing n", "book", "k-cl", "ook-club f", "café", "2 e", "+",
+            "c++", " ", "mum", "x", "g n", "s c", "EET", "eeti", "é's"};
+        for (String keyword : keywords) {
+            ArrayList<Task> expected = new ArrayList<>();
+            for (Task task : taskList) {
+                if (task.getName().contains(keyword)) {
+                    expected.add(task);
+                }
+            }
+            assertEquals(expected, taskList.find(keyword), keyword);
+        }
+    }
+
+    @Test
+    void testFindAfterReload() {
+        TaskList taskList = new TaskList();
+        taskList.add(new ToDo("Team meeting"));
+        taskList.add(new ToDo("Read Book"));
+
+        ArrayList<Task> reloaded = new ArrayList<>();
+        reloaded.add(new ToDo("Greet guests"));
+        taskList.setTaskArrayList(reloaded);
+
+        assertEquals(reloaded, taskList.find("eet"));
+        assertEquals(0, taskList.find("Book").size());
+    }
+
+    @Test
+    void testDueQueries() {
+        TaskList taskList = new TaskList();
+        LocalDateTime start = LocalDateTime.of(2024, 10, 1, 9, 0);
+        for (int i = 0; i < 100; i++) {
+            taskList.add(new Deadline("Deadline " + i, start.plusHours(i * 7 % 100)));
+        }
+        taskList.add(new ToDo("No deadline"));
+        taskList.get(3).markDone();
+        taskList.delete(10);
+
+        List<Task> due = taskList.dueBetween(start.plusHours(20), start.plusHours(29));
+        assertEquals(10, due.size());
+        for (int i = 1; i < due.size(); i++) {
+            assertTrue(!due.get(i).getTimeEnd().isBefore(due.get(i - 1).getTimeEnd()));
+        }
+
+        List<Task> next = taskList.nextDue(start, 5);
+        assertEquals(5, next.size());
+        assertEquals(start, next.get(0).getTimeEnd());
+        for (Task task : next) {
+            assertFalse(task.isDone());
+        }
+    }
+
+    @Test
+    void testNextDueSkipsMarkedTasks() {
+        TaskList taskList = new TaskList();
+        LocalDateTime start = LocalDateTime.of(2024, 10, 1, 0, 0);
+        for (int i = 0; i < 10; i++) {
+            taskList.add(new Deadline("Deadline " + i, start.plusHours(i)));
+            taskList.mark(i);
+        }
+        taskList.unmark(7);
+
+        List<Task> next = taskList.nextDue(start, 5);
+        assertEquals(1, next.size());
+        assertEquals("Deadline 7", next.get(0).getName());
+
+        taskList.delete(7);
+        assertTrue(taskList.nextDue(start, 5).isEmpty());
+    }
+
+    @Test
+    void testIntervalQueriesMatchScan() {
+        TaskList taskList = new TaskList();
+        LocalDateTime start = LocalDateTime.of(2024, 10, 1, 0, 0);
+        Random random = new Random(7);
+        for (int i = 0; i < 2000; i++) {
+            LocalDateTime eventStart = start.plusMinutes(random.nextInt(10000));
+            taskList.add(new Event("Event " + i, eventStart, eventStart.plusMinutes(1 + random.nextInt(600))));
+            if (i % 5 == 0) {
+                taskList.add(new Deadline("Deadline " + i, eventStart));
+            }
+        }
+        for (int i = 0; i < 300; i++) {
+            taskList.delete(random.nextInt(taskList.size()));
+        }
+
+        for (int i = 0; i < 50; i++) {
+            LocalDateTime from = start.plusMinutes(random.nextInt(10000));
+            LocalDateTime to = from.plusMinutes(random.nextInt(300));
+
+            HashSet<Task> overlapping = new HashSet<>();
+            HashSet<Task> happening = new HashSet<>();
+            for (Task task : taskList) {
+                if (task instanceof Event && task.getTimeStart().isBefore(to) && task.getTimeEnd().isAfter(from)) {
+                    overlapping.add(task);
+                }
+                if (task instanceof Event && !task.getTimeStart().isAfter(from) && task.getTimeEnd().isAfter(from)) {
+                    happening.add(task);
+                }
+            }
+
+            assertEquals(overlapping, new HashSet<>(taskList.overlapping(from, to)));
+            assertEquals(happening, new HashSet<>(taskList.happeningAt(from)));
+        }
+    }
+
+    @Test
+    void testAgendaSpansEventDays() {
+        TaskList taskList = new TaskList();
+        Event conference = new Event("Conference", LocalDateTime.of(2024, 10, 9, 9, 0),
+                LocalDateTime.of(2024, 10, 11, 0, 0));
+        Deadline report = new Deadline("Submit report", LocalDateTime.of(2024, 10, 10, 8, 0));
+        Deadline rent = new Deadline("Pay rent", LocalDateTime.of(2024, 10, 12, 9, 0));
+        taskList.add(conference);
+        taskList.add(report);
+        taskList.add(rent);
+        taskList.add(new ToDo("Read Book"));
+
+        SortedMap<LocalDate, List<Task>> agenda =
+                taskList.agenda(LocalDate.of(2024, 10, 8), LocalDate.of(2024, 10, 14));
+        assertEquals(List.of(LocalDate.of(2024, 10, 9), LocalDate.of(2024, 10, 10), LocalDate.of(2024, 10, 12)),
+                List.copyOf(agenda.keySet()));
+        assertEquals(List.of(conference, report), agenda.get(LocalDate.of(2024, 10, 10)));
+
+        taskList.delete(conference);
+        assertEquals(List.of(report), taskList.agenda(LocalDate.of(2024, 10, 10), LocalDate.of(2024, 10, 10))
+                .get(LocalDate.of(2024, 10, 10)));
+        assertTrue(taskList.agenda(LocalDate.of(2024, 10, 9), LocalDate.of(2024, 10, 9)).isEmpty());
+    }
+
+    @Test
+    void testAgendaShowsEventsSpanningYears() {
+        TaskList taskList = new TaskList();
+        Event residency = new Event("Residency", LocalDateTime.of(2026, 1, 1, 0, 0),
+                LocalDateTime.of(9999, 12, 31, 0, 0));
+        Deadline report = new Deadline("Submit report", LocalDateTime.of(2030, 5, 2, 8, 0));
+        taskList.add(residency);
+        taskList.add(report);
+
+        SortedMap<LocalDate, List<Task>> agenda =
+                taskList.agenda(LocalDate.of(2030, 5, 1), LocalDate.of(2030, 5, 3));
+        assertEquals(3, agenda.size());
+        assertEquals(List.of(residency, report), agenda.get(LocalDate.of(2030, 5, 2)));
+        assertTrue(taskList.agenda(LocalDate.of(2025, 12, 30), LocalDate.of(2025, 12, 31)).isEmpty());
+
+        taskList.delete(residency);
+        assertEquals(List.of(LocalDate.of(2030, 5, 2)),
+                List.copyOf(taskList.agenda(LocalDate.of(2030, 5, 1), LocalDate.of(2030, 5, 3)).keySet()));
+    }
+
+    @Test
+    void testRecurringOccurrencesAreMergedIntoQueries() {
+        TaskList taskList = new TaskList();
+        RecurringTask gym = new RecurringTask("Gym", LocalDateTime.of(2024, 10, 1, 18, 0),
+                RecurringTask.Frequency.WEEKLY, LocalDateTime.of(2024, 10, 29, 18, 0));
+        Deadline report = new Deadline("Submit report", LocalDateTime.of(2024, 10, 10, 8, 0));
+        taskList.add(gym);
+        taskList.add(report);
+
+        List<Task> due = taskList.dueBetween(LocalDateTime.of(2024, 10, 2, 0, 0), LocalDateTime.of(2024, 10, 16, 0, 0));
+        assertEquals(3, due.size());
+        assertEquals(LocalDateTime.of(2024, 10, 8, 18, 0), due.get(0).getTimeEnd());
+        assertSame(report, due.get(1));
+        assertEquals(LocalDateTime.of(2024, 10, 15, 18, 0), due.get(2).getTimeEnd());
+        assertEquals(gym.getId(), due.get(2).getId());
+
+        List<Task> next = taskList.nextDue(LocalDateTime.of(2024, 10, 20, 0, 0), 5);
+        assertEquals(List.of(LocalDateTime.of(2024, 10, 22, 18, 0), LocalDateTime.of(2024, 10, 29, 18, 0)),
+                next.stream().map(Task::getTimeEnd).toList());
+
+        SortedMap<LocalDate, List<Task>> agenda =
+                taskList.agenda(LocalDate.of(2024, 10, 8), LocalDate.of(2024, 10, 10));
+        assertEquals(List.of(LocalDate.of(2024, 10, 8), LocalDate.of(2024, 10, 10)), List.copyOf(agenda.keySet()));
+
+        taskList.mark(taskList.indexOf(gym));
+        assertTrue(taskList.nextDue(LocalDateTime.of(2024, 10, 20, 0, 0), 5).isEmpty());
+        taskList.delete(gym);
+        assertEquals(List.of(report), taskList.dueBetween(LocalDateTime.MIN, LocalDateTime.MAX));
+    }
+
+    @Test
+    void testLongRangesOfOccurrencesAreRefused() {
+        TaskList taskList = new TaskList();
+        RecurringTask standup = new RecurringTask("Standup", LocalDateTime.of(2024, 1, 1, 9, 0),
+                RecurringTask.Frequency.DAILY, null);
+        taskList.add(standup);
+
+        assertEquals(366, taskList.dueBetween(LocalDateTime.of(2024, 1, 1, 0, 0),
+                LocalDateTime.of(2024, 12, 31, 23, 59)).size());
+        assertThrows(IllegalArgumentException.class, () -> taskList.dueBetween(LocalDateTime.of(2024, 1, 1, 0, 0),
+                LocalDateTime.of(9999, 12, 31, 23, 59)));
+        assertEquals("[R][ ] Standup (daily from: Jan 01 2024 09:00 AM)", standup.toString());
+    }
+
+    @Test
+    void testMonthlyOccurrencesDoNotDrift() {
+        RecurringTask rent = new RecurringTask("Pay rent", LocalDateTime.of(2024, 1, 31, 9, 0),
+                RecurringTask.Frequency.MONTHLY, null);
+
+        List<Occurrence> occurrences = rent.occurrencesFrom(LocalDateTime.of(2024, 2, 1, 0, 0), 3);
+        assertEquals(List.of(LocalDateTime.of(2024, 2, 29, 9, 0), LocalDateTime.of(2024, 3, 31, 9, 0),
+                LocalDateTime.of(2024, 4, 30, 9, 0)), occurrences.stream().map(Task::getTimeEnd).toList());
+        assertEquals(LocalDateTime.of(2124, 1, 31, 9, 0),
+                rent.occurrencesFrom(LocalDateTime.of(2124, 1, 31, 9, 0), 1).get(0).getTimeEnd());
+    }
+
+    @Test
+    void testReadersSeeConsistentListWhileWriting() throws Exception {
+        TaskList taskList = new TaskList();
+        int taskCount = 2000;
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        List<Future<?>> readers = new ArrayList<>();
+        Future<?> writer = pool.submit(() -> {
+            for (int i = 0; i < taskCount; i++) {
+                taskList.add(new ToDo("Task " + i));
+                if (i % 10 == 9) {
+                    taskList.delete(0);
+                }
+            }
+        });
+        for (int r = 0; r < 3; r++) {
+            readers.add(pool.submit(() -> {
+                while (!writer.isDone()) {
+                    List<Task> snapshot = taskList.getTaskArrayList();
+                    for (int i = 1; i < snapshot.size(); i++) {
+                        assertTrue(snapshot.get(i - 1).getId() < snapshot.get(i).getId());
+                    }
+                    List<Task> matches = taskList.find("Task");
+                    assertEquals(matches.size(), new HashSet<>(matches).size());
+                }
+            }));
+        }
+
+        writer.get();
+        for (Future<?> reader : readers) {
+            reader.get();
+        }
+        pool.shutdown();
+
+        assertEquals(taskCount - taskCount / 10, taskList.size());
+        assertEquals(taskList.getTaskArrayList(), taskList.find("Task"));
+    }
+
+    @Test
+    void testListenersRunAfterTheWriteLockIsReleased() throws Exception {
+        TaskList taskList = new TaskList();
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        List<Integer> seenSizes = new ArrayList<>();
+        taskList.addListener(new TaskListListener() {
+            @Override
+            public void taskAdded(Task task) {
+                try {
+                    seenSizes.add(pool.submit(taskList::size).get(5, TimeUnit.SECONDS));
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+
+            @Override
+            public void taskRemoved(Task task) {
+            }
+
+            @Override
+            public void taskChanged(Task task) {
+            }
+        });
+
+        taskList.add(new ToDo("First"));
+        taskList.add(new ToDo("Second"));
+        pool.shutdown();
+
+        assertEquals(List.of(1, 2), seenSizes);
+    }
+}